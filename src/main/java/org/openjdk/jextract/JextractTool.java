@@ -27,6 +27,7 @@ package org.openjdk.jextract;
 
 import org.openjdk.jextract.clang.LibClang;
 import org.openjdk.jextract.impl.CommandLine;
+import org.openjdk.jextract.impl.CriticalFunctionMarker;
 import org.openjdk.jextract.impl.DuplicateFilter;
 import org.openjdk.jextract.impl.IncludeFilter;
 import org.openjdk.jextract.impl.IncludeHelper;
@@ -35,18 +36,25 @@ import org.openjdk.jextract.impl.MissingDepChecker;
 import org.openjdk.jextract.impl.NameMangler;
 import org.openjdk.jextract.impl.Options.Library;
 import org.openjdk.jextract.impl.OutputFactory;
+import org.openjdk.jextract.impl.OutputManifest;
 import org.openjdk.jextract.impl.Parser;
 import org.openjdk.jextract.impl.Options;
+import org.openjdk.jextract.impl.StagedOutput;
 import org.openjdk.jextract.impl.UnsupportedFilter;
+import org.openjdk.jextract.impl.VariadicCallMarker;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.module.ModuleDescriptor;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.spi.ToolProvider;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -110,9 +118,21 @@ public final class JextractTool {
     }
 
     private static Declaration.Scoped parseInternal(Logger logger, List<String> headers, String... parserOptions) {
+        return parseInternal(new Parser(logger), headers, 1, parserOptions);
+    }
+
+    private static Declaration.Scoped parseInternal(Parser parser, List<String> headers, int parseThreads,
+                                                    String... parserOptions) {
+        List<String> args = Stream.of(parserOptions).collect(Collectors.toList());
+        if (parseThreads > 1 && headers.size() > 1) {
+            // each header is parsed in its own translation unit
+            List<String> sources = headers.stream()
+                    .map(h -> generateTmpSource(List.of(h)))
+                    .toList();
+            return parser.parse("jextract$tmp.h", sources, args, parseThreads);
+        }
         String source = generateTmpSource(headers);
-        return new Parser(logger)
-                .parse("jextract$tmp.h", source, Stream.of(parserOptions).collect(Collectors.toList()));
+        return parser.parse("jextract$tmp.h", source, args);
     }
 
     public static List<JavaSourceFile> generate(Declaration.Scoped decl, String headerName,
@@ -123,29 +143,38 @@ public final class JextractTool {
         builder.setUseSystemLoadLibrary(useSystemLoadLibrary);
         libs.forEach(builder::addLibrary);
         Options options = builder.build();
-        return generateInternal(decl, headerName, targetPkg, options, Logger.DEFAULT);
+        Logger logger = Logger.DEFAULT;
+        List<JavaSourceFile> files = new ArrayList<>();
+        generateInternal(transform(decl, headerName, options, logger), targetPkg, options, logger, files::add);
+        return files;
     }
 
-
-
-    private static List<JavaSourceFile> generateInternal(Declaration.Scoped decl,
-                                                         String headerName,
-                                                         String targetPkg,
-                                                         Options options,
-                                                         Logger logger) {
-        var transformedDecl = Stream.of(decl)
+    private static Declaration.Scoped transform(Declaration.Scoped decl,
+                                                String headerName,
+                                                Options options,
+                                                Logger logger) {
+        return Stream.of(decl)
                 // process phases that add Skips first
                 .map(new IncludeFilter(options.includeHelper)::scan)
                 .map(new DuplicateFilter()::scan)
                 .map(new UnsupportedFilter(logger)::scan)
+                .map(new CriticalFunctionMarker(options.criticalFunctions)::scan)
+                .map(new VariadicCallMarker(options.variadicCalls)::scan)
                 // then do the rest
                 .map(new MissingDepChecker(logger)::scan)
                 .map(new NameMangler(headerName)::scan)
                 .findFirst().get();
-        return logger.hasErrors() ?
-                List.of() :
-                List.of(OutputFactory.generateWrapped(transformedDecl, targetPkg, options.libraries, options.useSystemLoadLibrary,
-                        options.sharedClassName));
+    }
+
+    // generated source files are passed to the sink as soon as they are complete
+    private static void generateInternal(Declaration.Scoped transformedDecl,
+                                         String targetPkg,
+                                         Options options,
+                                         Logger logger,
+                                         Consumer<JavaSourceFile> sink) {
+        if (!logger.hasErrors()) {
+            OutputFactory.generateWrapped(transformedDecl, targetPkg, options, sink);
+        }
     }
 
     /**
@@ -155,20 +184,38 @@ public final class JextractTool {
      */
     public static void write(Path dest, List<JavaSourceFile> files) throws IOException {
         Path destDir = createOutputDir(dest);
-        for (var entry : files) {
-            String packagePath = packageNameToPath(entry.packageName());
-            Path fullPath = destDir.resolve(packagePath, entry.className() + ".java").normalize();
-            Path dir = fullPath.getParent();
-            // In case the folder exist and is a link to a folder, this should be OK
-            // Case in point, /tmp on MacOS link to /private/tmp
-            if (Files.exists(dir)) {
-                if (!Files.isDirectory(dir)) {
-                    throw new FileAlreadyExistsException(dir.toAbsolutePath().toString());
-                }
-            } else {
-                Files.createDirectories(fullPath.getParent());
+        StagedOutput staged = new StagedOutput();
+        try {
+            for (var entry : files) {
+                writeFile(destDir, entry, null, staged);
+            }
+            staged.commit();
+        } finally {
+            staged.discard();
+        }
+    }
+
+    // the file is staged, and only moved in place once all the files have been generated. If a manifest
+    // is given, the file is only staged (by the manifest) if its contents have changed
+    private static void writeFile(Path destDir, JavaSourceFile entry, OutputManifest manifest,
+                                  StagedOutput staged) throws IOException {
+        String packagePath = packageNameToPath(entry.packageName());
+        Path fullPath = destDir.resolve(packagePath, entry.className() + ".java").normalize();
+        Path dir = fullPath.getParent();
+        // In case the folder exist and is a link to a folder, this should be OK
+        // Case in point, /tmp on MacOS link to /private/tmp
+        if (Files.exists(dir)) {
+            if (!Files.isDirectory(dir)) {
+                throw new FileAlreadyExistsException(dir.toAbsolutePath().toString());
             }
-            Files.write(fullPath, List.of(entry.contents()));
+        } else {
+            Files.createDirectories(fullPath.getParent());
+        }
+        byte[] contents = (entry.contents() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        if (manifest != null) {
+            manifest.write(destDir.relativize(fullPath).toString(), contents);
+        } else {
+            staged.write(fullPath, contents);
         }
     }
 
@@ -366,6 +413,7 @@ public final class JextractTool {
         }
 
         OptionParser parser = new OptionParser();
+        parser.accepts("--critical-function", "help.critical.function", true);
         parser.accepts("-D", List.of("--define-macro"), "help.D", true);
         parser.accepts("--dump-includes", "help.dump-includes", true);
         parser.accepts("--symbols-class-name", "help.shared.symbols", true);
@@ -373,11 +421,19 @@ public final class JextractTool {
             parser.accepts("--" + includeKind.optionName(), "help." + includeKind.optionName(), true);
         }
         parser.accepts("-h", List.of("-?", "--help"), "help.h", false);
+        parser.accepts("--handle-tables", "help.handle.tables", false);
         parser.accepts("--header-class-name", "help.header-class-name", true);
         parser.accepts("-I", List.of("--include-dir"), "help.I", true);
+        parser.accepts("--incremental", "help.incremental", false);
         parser.accepts("-l", List.of("--library"), "help.l", true);
         parser.accepts("--use-system-load-library", "help.use.system.load.library", false);
+        parser.accepts("--omit-doc-comments", "help.omit.doc.comments", false);
         parser.accepts("--output", "help.output", true);
+        parser.accepts("--parse-cache", "help.parse.cache", true);
+        parser.accepts("--parse-threads", "help.parse.threads", true);
+        parser.accepts("--shared-downcall-handles", "help.shared.downcall.handles", false);
+        parser.accepts("--skip-macros", "help.skip.macros", false);
+        parser.accepts("--variadic-call", "help.variadic.call", true);
         parser.accepts("-t", List.of("--target-package"), "help.t", true);
         parser.accepts("--version", "help.version", false);
 
@@ -448,6 +504,21 @@ public final class JextractTool {
             }
         }
 
+        if (optionSet.has("--critical-function")) {
+            optionSet.valuesOf("--critical-function").forEach(builder::addCriticalFunction);
+        }
+
+        if (optionSet.has("--variadic-call")) {
+            for (String call : optionSet.valuesOf("--variadic-call")) {
+                try {
+                    builder.addVariadicCall(Options.VariadicCall.parse(call));
+                } catch (IllegalArgumentException ex) {
+                    logger.err("variadic.call.option.value.invalid", call);
+                    return OPTION_ERROR;
+                }
+            }
+        }
+
         if (optionSet.has("--dump-includes")) {
             builder.setDumpIncludeFile(optionSet.valueOf("--dump-includes"));
         }
@@ -460,6 +531,44 @@ public final class JextractTool {
             builder.setOutputDir(optionSet.valueOf("--output"));
         }
 
+        if (optionSet.has("--parse-cache")) {
+            builder.setParseCacheDir(optionSet.valueOf("--parse-cache"));
+        }
+
+        if (optionSet.has("--parse-threads")) {
+            String threads = optionSet.valueOf("--parse-threads");
+            try {
+                int parseThreads = Integer.parseInt(threads);
+                if (parseThreads < 1) {
+                    throw new NumberFormatException();
+                }
+                builder.setParseThreads(parseThreads);
+            } catch (NumberFormatException ex) {
+                logger.err("parse.threads.option.value.invalid", threads);
+                return OPTION_ERROR;
+            }
+        }
+
+        if (optionSet.has("--skip-macros")) {
+            builder.setParseMacros(false);
+        }
+
+        if (optionSet.has("--omit-doc-comments")) {
+            builder.setDocComments(false);
+        }
+
+        if (optionSet.has("--incremental")) {
+            builder.setIncremental(true);
+        }
+
+        if (optionSet.has("--shared-downcall-handles")) {
+            builder.setSharedDowncallHandles(true);
+        }
+
+        if (optionSet.has("--handle-tables")) {
+            builder.setHandleTables(true);
+        }
+
         boolean useSystemLoadLibrary = optionSet.has("--use-system-load-library");
         if (useSystemLoadLibrary) {
             if (!optionSet.has("-l")){
@@ -501,7 +610,18 @@ public final class JextractTool {
         Options options = builder.build();
         List<String> headers = optionSet.nonOptionArguments();
 
-        List<JavaSourceFile> files;
+        OutputManifest manifest = options.incremental && options.includeHelper.dumpIncludesFile == null ?
+                loadManifest(args, options) : null;
+        if (manifest != null && manifest.isUpToDate()) {
+            // nothing has changed since the last run
+            return SUCCESS;
+        }
+
+        Parser headerParser = new Parser(logger,
+                options.parseCacheDir != null ? Path.of(options.parseCacheDir) : null, options.parseMacros,
+                // declarations excluded by the include filters do not need a declaration string
+                options.docComments ? options.includeHelper::mayBeIncluded : _ -> false);
+        Declaration.Scoped transformedDecl;
         try {
             String headerName;
             if (optionSet.has("--header-class-name")) {
@@ -518,14 +638,13 @@ public final class JextractTool {
                 }
                 headerName = Paths.get(headerName).getFileName().toString();
             }
-            Declaration.Scoped toplevel = parseInternal(logger, headers, options.clangArgs.toArray(new String[0]));
+            Declaration.Scoped toplevel = parseInternal(headerParser, headers, options.parseThreads,
+                    options.clangArgs.toArray(new String[0]));
 
             if (JextractTool.DEBUG) {
                 System.out.println(toplevel);
             }
-            files = generateInternal(
-                    toplevel, headerName, targetPackage, options, logger
-            );
+            transformedDecl = transform(toplevel, headerName, options, logger);
 
             if (logger.hasClangErrors()) {
                 return CLANG_ERROR;
@@ -540,11 +659,36 @@ public final class JextractTool {
                 options.includeHelper.dumpIncludes();
             } else {
                 Path output = Path.of(options.outputDir);
+                StagedOutput staged = new StagedOutput();
                 try {
-                    write(output, files);
+                    // write each source file as soon as it is generated, so that the generated
+                    // sources do not have to be kept in memory. Files are staged, and only moved
+                    // in place if all the files have been generated
+                    Path destDir = createOutputDir(output);
+                    generateInternal(transformedDecl, targetPackage, options, logger, file -> {
+                        try {
+                            writeFile(destDir, file, manifest, staged);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    if (manifest == null) {
+                        staged.commit();
+                    } else if (!logger.hasErrors()) {
+                        manifest.store(headerParser.includedFiles());
+                    }
                 } catch (IOException e) {
                     logger.fatal(e);
                     return OUTPUT_ERROR;
+                } catch (UncheckedIOException e) {
+                    logger.fatal(e.getCause());
+                    return OUTPUT_ERROR;
+                } finally {
+                    // no-op if the staged files have been moved in place
+                    staged.discard();
+                    if (manifest != null) {
+                        manifest.discard();
+                    }
                 }
             }
         } catch (RuntimeException re) {
@@ -557,6 +701,18 @@ public final class JextractTool {
                 SUCCESS;
     }
 
+    private static OutputManifest loadManifest(String[] args, Options options) {
+        List<String> inputs = new ArrayList<>();
+        inputs.add(JextractTool.class.getModule().getDescriptor() instanceof ModuleDescriptor descriptor ?
+                descriptor.toNameAndVersion() : "");
+        inputs.add(LibClang.version());
+        inputs.addAll(Arrays.asList(args));
+        // the clang arguments also include the contents of compile_flags.txt, and the include directories
+        // that are added implicitly
+        inputs.addAll(options.clangArgs);
+        return OutputManifest.load(Path.of(options.outputDir).toAbsolutePath(), inputs);
+    }
+
     private int parseLibraries(String optionString, OptionSet optionSet, boolean useSystemLoadLibrary, Options.Builder builder) {
         String cmdOption = optionString.length() < 3 ?
                 "-" + optionString :
@@ -29,6 +29,12 @@ package org.openjdk.jextract.clang;
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.SegmentAllocator;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 
 /**
@@ -36,11 +42,32 @@ import java.util.function.Consumer;
  * This class starts a new confined session and an arena allocator; this arena allocator is used by all
  * the abstractions "owned" by this disposable. For instance, as a CXCursor's lifetime is the same as that of
  * the CXTranslationUnit's lifetime, cursors are allocated inside the translation unit's lifetime.
+ * <p>
+ * As memory allocated in the arena is only released when this disposable is closed, clients that perform
+ * many queries (e.g. a visit of all the declarations in a translation unit) can open a
+ * {@linkplain #transientScope() transient scope}: while the scope is open, the abstractions owned by this
+ * disposable are allocated in a slab which is rewound when the scope is closed, so that memory usage stays
+ * bounded.
+ * <p>
+ * A disposable also interns the file paths and the spellings of the abstractions it owns, so that positions
+ * and names obtained from different cursors in the same translation unit share the same instances.
  */
 public abstract class ClangDisposable implements SegmentAllocator, AutoCloseable {
+    private static final long SLAB_CHUNK_SIZE = 64 * 1024;
+
     protected final MemorySegment ptr;
     protected final Arena arena;
 
+    // slab used for transient allocations, made of chunks allocated in the arena
+    private final List<MemorySegment> slabChunks = new ArrayList<>();
+    private int slabChunk;
+    private long slabOffset;
+    private int transientScopes;
+
+    // interning tables, keyed by CXFile handle and by spelling, respectively
+    private final Map<Long, Path> filePaths = new HashMap<>();
+    private final Map<String, String> spellings = new HashMap<>();
+
     public ClangDisposable(MemorySegment ptr, long size, Consumer<MemorySegment> cleanup) {
         this.arena = Arena.ofConfined();
         this.ptr = ptr.reinterpret(size, arena, cleanup).asReadOnly();
@@ -57,7 +84,72 @@ public abstract class ClangDisposable implements SegmentAllocator, AutoCloseable
 
     @Override
     public MemorySegment allocate(long bytesSize, long bytesAlignment) {
-        return arena.allocate(bytesSize, bytesAlignment);
+        return transientScopes > 0 && bytesSize <= SLAB_CHUNK_SIZE ?
+                allocateTransient(bytesSize, bytesAlignment) :
+                arena.allocate(bytesSize, bytesAlignment);
+    }
+
+    private MemorySegment allocateTransient(long bytesSize, long bytesAlignment) {
+        while (true) {
+            if (slabChunk == slabChunks.size()) {
+                slabChunks.add(arena.allocate(SLAB_CHUNK_SIZE, 16));
+            }
+            long start = (slabOffset + bytesAlignment - 1) & -bytesAlignment;
+            if (start + bytesSize <= SLAB_CHUNK_SIZE) {
+                slabOffset = start + bytesSize;
+                return slabChunks.get(slabChunk).asSlice(start, bytesSize);
+            }
+            // move to next chunk
+            slabChunk++;
+            slabOffset = 0;
+        }
+    }
+
+    /**
+     * Opens a transient scope. Until the returned scope is closed, the abstractions owned by this disposable
+     * (e.g. cursors, types and source locations obtained from other cursors and types) are allocated in a
+     * slab. When the scope is closed, the slab is rewound to the state it had when the scope was opened, and
+     * its memory is reused by subsequent allocations. As such, abstractions allocated inside a transient scope
+     * must not be used after the scope is closed. Transient scopes can be nested, but must be closed in the
+     * reverse order in which they have been opened.
+     */
+    public TransientScope transientScope() {
+        return new TransientScope();
+    }
+
+    public final class TransientScope implements AutoCloseable {
+        private final int chunk = slabChunk;
+        private final long offset = slabOffset;
+
+        private TransientScope() {
+            transientScopes++;
+        }
+
+        @Override
+        public void close() {
+            transientScopes--;
+            slabChunk = chunk;
+            slabOffset = offset;
+        }
+    }
+
+    /**
+     * {@return the absolute path of the given file}. A CXFile handle remains valid for as long as this
+     * disposable is alive, so the file name is only queried (and converted) once per handle.
+     */
+    Path filePath(MemorySegment file) {
+        return filePaths.computeIfAbsent(file.address(), _ -> {
+            String name = SourceLocation.getFileName(file);
+            return name.isEmpty() ? null : Paths.get(name).toAbsolutePath();
+        });
+    }
+
+    /**
+     * {@return the canonical instance of the given spelling}.
+     */
+    String intern(String spelling) {
+        String prev = spellings.putIfAbsent(spelling, spelling);
+        return prev != null ? prev : spelling;
     }
 
     /**
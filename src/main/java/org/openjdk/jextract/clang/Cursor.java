@@ -33,12 +33,10 @@ import org.openjdk.jextract.clang.libclang.CXCursor;
 import org.openjdk.jextract.clang.libclang.CXCursorVisitor;
 import org.openjdk.jextract.clang.libclang.Index_h;
 
-import java.lang.foreign.SegmentAllocator;
-import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
-import static org.openjdk.jextract.clang.libclang.Index_h.C_CHAR;
+import static org.openjdk.jextract.clang.libclang.Index_h.C_POINTER;
 
 public final class Cursor extends ClangDisposable.Owned {
 
@@ -46,7 +44,8 @@ public final class Cursor extends ClangDisposable.Owned {
 
     Cursor(MemorySegment segment, ClangDisposable owner) {
         super(segment, owner);
-        kind = Index_h.clang_getCursorKind(segment);
+        // same as 'clang_getCursorKind', without a native call
+        kind = CXCursor.kind(segment);
     }
 
     public boolean isDeclaration() {
@@ -81,7 +80,7 @@ public final class Cursor extends ClangDisposable.Owned {
 
     public String spelling() {
         var spelling = Index_h.clang_getCursorSpelling(LibClang.STRING_ALLOCATOR, segment);
-        return LibClang.CXStrToString(spelling);
+        return owner.intern(LibClang.CXStrToString(spelling));
     }
 
     public String USR() {
@@ -246,10 +245,11 @@ public final class Cursor extends ClangDisposable.Owned {
             }
         }
 
-        static Context pendingContext = null;
+        // the visitor context is per-thread, so that cursors of different translation units can be visited concurrently
+        private static final ThreadLocal<Context> PENDING_CONTEXT = new ThreadLocal<>();
 
         private static final MemorySegment callback = CXCursorVisitor.allocate((c, p, d) -> {
-            if (pendingContext.visit(c)) {
+            if (PENDING_CONTEXT.get().visit(c)) {
                 return Index_h.CXChildVisit_Continue();
             } else {
                 return Index_h.CXChildVisit_Break();
@@ -263,15 +263,15 @@ public final class Cursor extends ClangDisposable.Owned {
             });
         }
 
-        synchronized static void forEachShortCircuit(Cursor c, Predicate<Cursor> op) {
-            // everything is confined, no need to synchronize
-            Context prevContext = pendingContext;
+        static void forEachShortCircuit(Cursor c, Predicate<Cursor> op) {
+            Context prevContext = PENDING_CONTEXT.get();
             try {
-                pendingContext = new Context(op, c.owner);
+                Context context = new Context(op, c.owner);
+                PENDING_CONTEXT.set(context);
                 Index_h.clang_visitChildren(c.segment, callback, MemorySegment.NULL);
-                pendingContext.handleExceptions();
+                context.handleExceptions();
             } finally {
-                pendingContext = prevContext;
+                PENDING_CONTEXT.set(prevContext);
             }
         }
     }
@@ -299,42 +299,59 @@ public final class Cursor extends ClangDisposable.Owned {
 
     /**
      * A key that can be used for cursor comparisons. This avoids the problem of comparing cursors
-     * which are already closed, and also optimizes the use of the underlying 'clang_equalCursors' function,
-     * to avoid unnecessary off-heap allocation. This is required by the deduplication logic in TreeMaker.
+     * which are already closed, and also avoids calls to the underlying 'clang_equalCursors' function:
+     * keys are compared (and hashed) using the kind and the data words of the underlying cursor, in the
+     * same way as 'clang_equalCursors' does. As a result, neither creating a key, nor looking it up in a
+     * hash table, requires any native call. This is required by the deduplication logic in TreeMaker.
+     * Keys for cursors that belong to different translation units are never equal (even if the
+     * memory of a disposed translation unit has been reused by another one).
      */
-    public static class Key {
+    public static final class Key {
 
-        final String spelling;
-        final CursorKind kind;
-        final MemorySegment payload;
+        private final int kind;
+        private final long data0;
+        private final long data1;
+        private final long data2;
+        private final ClangDisposable owner;
+        private final int hash;
 
         private Key(Cursor cursor) {
-            spelling = cursor.spelling();
-            kind = cursor.kind();
-            payload = MemorySegment.ofArray(new byte[(int)CXCursor.sizeof()]);
-            payload.copyFrom(cursor.segment);
+            kind = cursor.kind;
+            owner = cursor.owner;
+            data0 = data(cursor.segment, 0);
+            // as in 'clang_equalCursors', ignore the "first in declaration group" bit of declaration cursors
+            data1 = isDeclarationKind(kind) ? 0L : data(cursor.segment, 1);
+            data2 = data(cursor.segment, 2);
+            int h = kind;
+            h = 31 * h + Long.hashCode(data0);
+            h = 31 * h + Long.hashCode(data1);
+            h = 31 * h + Long.hashCode(data2);
+            hash = h;
         }
 
         @Override
         public boolean equals(Object obj) {
-            if (!(obj instanceof Key key)) return false;
-            if (kind != key.kind) return false;
-            if (!spelling.equals(key.spelling)) return false;
-            // slow path
-            SegmentAllocator allocator = SegmentAllocator.slicingAllocator(COMPARISON_SEGMENT);
-            return Index_h.clang_equalCursors(toSegment(allocator), key.toSegment(allocator)) != 0;
+            return obj instanceof Key key &&
+                    kind == key.kind &&
+                    data0 == key.data0 &&
+                    data1 == key.data1 &&
+                    data2 == key.data2 &&
+                    owner == key.owner;
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(kind, spelling);
+            return hash;
         }
 
-        private MemorySegment toSegment(SegmentAllocator allocator) {
-            return allocator.allocateFrom(C_CHAR, payload,
-                                          C_CHAR, 0, CXCursor.sizeof());
+        private static long data(MemorySegment cursor, int index) {
+            return cursor.get(C_POINTER, CXCursor.data$offset() + index * C_POINTER.byteSize()).address();
         }
 
-        private static final MemorySegment COMPARISON_SEGMENT = Arena.ofAuto().allocate(CXCursor.layout(), 2);
+        // same as 'clang_isDeclaration'
+        private static boolean isDeclarationKind(int kind) {
+            return (kind >= Index_h.CXCursor_FirstDecl() && kind <= Index_h.CXCursor_LastDecl()) ||
+                    (kind >= Index_h.CXCursor_FirstExtraDecl() && kind <= Index_h.CXCursor_LastExtraDecl());
+        }
     }
 }
@@ -31,6 +31,7 @@ import java.lang.foreign.MemorySegment;
 import org.openjdk.jextract.clang.libclang.Index_h;
 import org.openjdk.jextract.clang.libclang.CXUnsavedFile;
 
+import java.nio.file.Path;
 import java.util.function.Consumer;
 
 import static org.openjdk.jextract.clang.libclang.Index_h.C_POINTER;
@@ -107,6 +108,28 @@ public class Index extends ClangDisposable {
         }
     }
 
+    /**
+     * Loads a translation unit from an AST file, previously created using {@link TranslationUnit#save(Path)}.
+     */
+    public TranslationUnit load(Path astFile, Consumer<Diagnostic> dh) throws ParsingFailedException {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment fileSeg = arena.allocateFrom(astFile.toAbsolutePath().toString());
+            MemorySegment outAddress = arena.allocate(C_POINTER);
+            ErrorCode code = ErrorCode.valueOf(Index_h.clang_createTranslationUnit2(
+                    ptr,
+                    fileSeg,
+                    outAddress));
+
+            if (code != ErrorCode.Success) {
+                throw new ParsingFailedException(astFile.toString(), code);
+            }
+
+            TranslationUnit rv = new TranslationUnit(outAddress.get(C_POINTER, 0));
+            rv.processDiagnostics(dh);
+            return rv;
+        }
+    }
+
     private int defaultOptions(boolean detailedPreprocessorRecord) {
         int rv = Index_h.CXTranslationUnit_ForSerialization();
         rv |= Index_h.CXTranslationUnit_SkipFunctionBodies();
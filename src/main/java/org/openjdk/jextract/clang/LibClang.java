@@ -84,11 +84,14 @@ public class LibClang {
     /**
      * This is an allocator for temporary CXString structs. CXStrToString needs to save the CXString somewhere,
      * so that we can extract a Java string out of it. Once that's done, we can dispose the CXString, and the
-     * associated segment. Since jextract is single-threaded, we can use a prefix allocator, to speed up string
-     * conversion. The size of the prefix segment is set to 256, which should be enough to hold a CXString.
+     * associated segment. Since a CXString is never live for more than one conversion on a given thread, we can
+     * use a per-thread prefix allocator, to speed up string conversion. The size of the prefix segment is set
+     * to the size of a CXString.
      */
-    public final static SegmentAllocator STRING_ALLOCATOR = SegmentAllocator.prefixAllocator(
-            Arena.ofAuto().allocate(CXString.sizeof(), 8));
+    private static final ThreadLocal<SegmentAllocator> STRING_ALLOCATORS = ThreadLocal.withInitial(() ->
+            SegmentAllocator.prefixAllocator(Arena.ofAuto().allocate(CXString.sizeof(), 8)));
+
+    public final static SegmentAllocator STRING_ALLOCATOR = (size, align) -> STRING_ALLOCATORS.get().allocate(size, align);
 
     public static String version() {
         var clangVersion = Index_h.clang_getClangVersion(STRING_ALLOCATOR);
@@ -30,7 +30,6 @@ import java.lang.foreign.MemorySegment;
 import org.openjdk.jextract.clang.libclang.Index_h;
 
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.Objects;
 
 import static org.openjdk.jextract.clang.LibClang.STRING_ALLOCATOR;
@@ -61,14 +60,14 @@ public class SourceLocation extends ClangDisposable.Owned {
 
             fn.get(loc, file, line, col, offset);
             MemorySegment fname = file.get(C_POINTER, 0);
-            String str = fname.equals(MemorySegment.NULL) ?  null : getFileName(fname);
+            Path path = fname.equals(MemorySegment.NULL) ? null : owner.filePath(fname);
 
-            return new Location(str, line.get(C_INT, 0),
+            return new Location(path, line.get(C_INT, 0),
                 col.get(C_INT, 0), offset.get(C_INT, 0));
         }
     }
 
-    private static String getFileName(MemorySegment fname) {
+    static String getFileName(MemorySegment fname) {
         var filename = Index_h.clang_getFileName(STRING_ALLOCATOR, fname);
         return LibClang.CXStrToString(filename);
     }
@@ -104,13 +103,8 @@ public class SourceLocation extends ClangDisposable.Owned {
         private final int column;
         private final int offset;
 
-        private Location(String filename, int line, int column, int offset) {
-            if (filename == null || filename.isEmpty()) {
-                this.path = null;
-            } else {
-                this.path = Paths.get(filename);
-            }
-
+        private Location(Path path, int line, int column, int offset) {
+            this.path = path;
             this.line = line;
             this.column = column;
             this.offset = offset;
@@ -29,12 +29,16 @@ package org.openjdk.jextract.clang;
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.MemoryLayout;
+import org.openjdk.jextract.clang.libclang.CXInclusionVisitor;
 import org.openjdk.jextract.clang.libclang.CXToken;
 import org.openjdk.jextract.clang.libclang.Index_h;
 import org.openjdk.jextract.clang.libclang.CXUnsavedFile;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.Consumer;
 
@@ -42,6 +46,8 @@ import static org.openjdk.jextract.clang.LibClang.STRING_ALLOCATOR;
 import static org.openjdk.jextract.clang.libclang.Index_h.C_INT;
 import static org.openjdk.jextract.clang.libclang.Index_h.C_LONG;
 import static org.openjdk.jextract.clang.libclang.Index_h.C_POINTER;
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
 
 public class TranslationUnit extends ClangDisposable {
     private static final int MAX_RETRIES = 10;
@@ -65,6 +71,30 @@ public class TranslationUnit extends ClangDisposable {
         }
     }
 
+    /**
+     * Returns the names of all the files included by this translation unit, directly or indirectly, along
+     * with the contents clang has parsed (or {@code null}, if clang has not loaded the contents of a file).
+     * These contents might differ from the current contents of the files, if they have changed since.
+     */
+    public Map<String, byte[]> includedFiles() {
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        try (Arena arena = Arena.ofConfined()) {
+            // size_t is 64 bits wide on all the supported platforms
+            MemorySegment pSize = arena.allocate(JAVA_LONG);
+            MemorySegment visitor = CXInclusionVisitor.allocate((file, stack, len, data) -> {
+                String name = SourceLocation.getFileName(file);
+                if (name != null && !name.isEmpty()) {
+                    MemorySegment contents = Index_h.clang_getFileContents(ptr, file, pSize);
+                    files.put(name, contents.equals(MemorySegment.NULL) ?
+                            null :
+                            contents.reinterpret(pSize.get(JAVA_LONG, 0)).toArray(JAVA_BYTE));
+                }
+            }, arena);
+            Index_h.clang_getInclusions(ptr, visitor, MemorySegment.NULL);
+        }
+        return files;
+    }
+
     void processDiagnostics(Consumer<Diagnostic> dh) {
         Objects.requireNonNull(dh);
         int cntDiags = Index_h.clang_getNumDiagnostics(ptr);
@@ -157,7 +157,7 @@ public final class Type extends ClangDisposable.Owned {
 
     public String spelling() {
         var spelling = Index_h.clang_getTypeSpelling(STRING_ALLOCATOR, segment);
-        return LibClang.CXStrToString(spelling);
+        return owner.intern(LibClang.CXStrToString(spelling));
     }
 
     public int kind0() {
@@ -550,6 +550,66 @@ public class Index_h {
         }
     }
 
+    private static class clang_getFileContents {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            Index_h.C_POINTER,
+            Index_h.C_POINTER,
+            Index_h.C_POINTER,
+            Index_h.C_POINTER
+        );
+
+        public static final MemorySegment ADDR = Index_h.findOrThrow("clang_getFileContents");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * const char *clang_getFileContents(CXTranslationUnit tu, CXFile file, size_t *size)
+     * }
+     */
+    public static FunctionDescriptor clang_getFileContents$descriptor() {
+        return clang_getFileContents.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * const char *clang_getFileContents(CXTranslationUnit tu, CXFile file, size_t *size)
+     * }
+     */
+    public static MethodHandle clang_getFileContents$handle() {
+        return clang_getFileContents.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * const char *clang_getFileContents(CXTranslationUnit tu, CXFile file, size_t *size)
+     * }
+     */
+    public static MemorySegment clang_getFileContents$address() {
+        return clang_getFileContents.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * const char *clang_getFileContents(CXTranslationUnit tu, CXFile file, size_t *size)
+     * }
+     */
+    public static MemorySegment clang_getFileContents(MemorySegment tu, MemorySegment file, MemorySegment size) {
+        var mh$ = clang_getFileContents.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("clang_getFileContents", tu, file, size);
+            }
+            return (MemorySegment)mh$.invokeExact(tu, file, size);
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
     private static class clang_getNullLocation {
         public static final FunctionDescriptor DESC = FunctionDescriptor.of(
             CXSourceLocation.layout()    );
@@ -2096,6 +2156,66 @@ public class Index_h {
         }
     }
 
+    private static class clang_createTranslationUnit2 {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.of(
+            Index_h.C_INT,
+            Index_h.C_POINTER,
+            Index_h.C_POINTER,
+            Index_h.C_POINTER
+        );
+
+        public static final MemorySegment ADDR = Index_h.findOrThrow("clang_createTranslationUnit2");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * enum CXErrorCode clang_createTranslationUnit2(CXIndex CIdx, const char *ast_filename, CXTranslationUnit *out_TU)
+     * }
+     */
+    public static FunctionDescriptor clang_createTranslationUnit2$descriptor() {
+        return clang_createTranslationUnit2.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * enum CXErrorCode clang_createTranslationUnit2(CXIndex CIdx, const char *ast_filename, CXTranslationUnit *out_TU)
+     * }
+     */
+    public static MethodHandle clang_createTranslationUnit2$handle() {
+        return clang_createTranslationUnit2.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * enum CXErrorCode clang_createTranslationUnit2(CXIndex CIdx, const char *ast_filename, CXTranslationUnit *out_TU)
+     * }
+     */
+    public static MemorySegment clang_createTranslationUnit2$address() {
+        return clang_createTranslationUnit2.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * enum CXErrorCode clang_createTranslationUnit2(CXIndex CIdx, const char *ast_filename, CXTranslationUnit *out_TU)
+     * }
+     */
+    public static int clang_createTranslationUnit2(MemorySegment CIdx, MemorySegment ast_filename, MemorySegment out_TU) {
+        var mh$ = clang_createTranslationUnit2.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("clang_createTranslationUnit2", CIdx, ast_filename, out_TU);
+            }
+            return (int)mh$.invokeExact(CIdx, ast_filename, out_TU);
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
     private static class clang_parseTranslationUnit2 {
         public static final FunctionDescriptor DESC = FunctionDescriptor.of(
             Index_h.C_INT,
@@ -9185,6 +9305,65 @@ public class Index_h {
         }
     }
 
+    private static class clang_getInclusions {
+        public static final FunctionDescriptor DESC = FunctionDescriptor.ofVoid(
+            Index_h.C_POINTER,
+            Index_h.C_POINTER,
+            Index_h.C_POINTER
+        );
+
+        public static final MemorySegment ADDR = Index_h.findOrThrow("clang_getInclusions");
+
+        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
+    }
+
+    /**
+     * Function descriptor for:
+     * {@snippet lang=c :
+     * void clang_getInclusions(CXTranslationUnit tu, CXInclusionVisitor visitor, CXClientData client_data)
+     * }
+     */
+    public static FunctionDescriptor clang_getInclusions$descriptor() {
+        return clang_getInclusions.DESC;
+    }
+
+    /**
+     * Downcall method handle for:
+     * {@snippet lang=c :
+     * void clang_getInclusions(CXTranslationUnit tu, CXInclusionVisitor visitor, CXClientData client_data)
+     * }
+     */
+    public static MethodHandle clang_getInclusions$handle() {
+        return clang_getInclusions.HANDLE;
+    }
+
+    /**
+     * Address for:
+     * {@snippet lang=c :
+     * void clang_getInclusions(CXTranslationUnit tu, CXInclusionVisitor visitor, CXClientData client_data)
+     * }
+     */
+    public static MemorySegment clang_getInclusions$address() {
+        return clang_getInclusions.ADDR;
+    }
+
+    /**
+     * {@snippet lang=c :
+     * void clang_getInclusions(CXTranslationUnit tu, CXInclusionVisitor visitor, CXClientData client_data)
+     * }
+     */
+    public static void clang_getInclusions(MemorySegment tu, MemorySegment visitor, MemorySegment client_data) {
+        var mh$ = clang_getInclusions.HANDLE;
+        try {
+            if (TRACE_DOWNCALLS) {
+                traceDowncall("clang_getInclusions", tu, visitor, client_data);
+            }
+            mh$.invokeExact(tu, visitor, client_data);
+        } catch (Throwable ex$) {
+           throw new AssertionError("should not reach here", ex$);
+        }
+    }
+
     private static class clang_getCursorUSR {
         public static final FunctionDescriptor DESC = FunctionDescriptor.of(
             CXString.layout(),
@@ -41,6 +41,7 @@ import java.lang.invoke.MethodType;
 import java.lang.invoke.VarHandle;
 import java.util.List;
 import java.util.Objects;
+import java.util.StringJoiner;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -126,16 +127,12 @@ abstract class ClassSourceBuilder {
         sb.decrAlign();
     }
 
-    String format(String s, String... args) {
-        return String.format(s, (Object[]) args);
-    }
-
     // append multiple lines (indentation is added automatically)
     void appendLines(String s) {
         sb.appendLines(s);
     }
     void appendLines(String s, String... args) {
-        sb.appendLines(format(s, args));
+        sb.appendLines(CodeTemplate.of(s), args);
     }
 
     void appendBlankLine() {
@@ -149,7 +146,9 @@ abstract class ClassSourceBuilder {
     }
 
     void appendIndentedLines(String s, String... args) {
-        sb.appendIndentedLines(format(s, args));
+        incrAlign();
+        appendLines(s, args);
+        decrAlign();
     }
 
     final void emitDefaultConstructor() {
@@ -175,6 +174,10 @@ abstract class ClassSourceBuilder {
     }
 
     final void emitDocComment(Declaration decl, String header) {
+        if (DeclarationString.get(decl).isEmpty()) {
+            // declaration strings have been omitted (see --omit-doc-comments)
+            return;
+        }
         appendLines("""
             /**
             %1$s\
@@ -185,6 +188,69 @@ abstract class ClassSourceBuilder {
             """, !header.isEmpty() ? String.format(" * %1$s\n", header) : "", declarationComment(decl));
     }
 
+    /**
+     * Emits an overload of a static method, where the parameters of type {@code String} are passed to the
+     * original method as C strings. The strings are copied to a per-thread scratch buffer (see
+     * {@link HeaderFileBuilder#emitRuntimeHelperMethods()}), which is reset when the overload returns.
+     */
+    final void emitStringOverload(String methodName, Class<?> returnType,
+                                  List<Class<?>> paramTypes, List<String> paramNames) {
+        StringJoiner params = new StringJoiner(", ");
+        StringJoiner args = new StringJoiner(", ");
+        for (int i = 0; i < paramTypes.size(); i++) {
+            String name = paramNames.get(i);
+            params.add(paramTypes.get(i).getSimpleName() + " " + name);
+            args.add(paramTypes.get(i) == String.class ?
+                    String.format("scratch$.allocateFrom(%1$s)", name) :
+                    name);
+        }
+        appendLines("""
+            public static %1$s %2$s(%3$s) {
+                var scratch$ = %4$s.scratchBuffer();
+                long mark$ = scratch$.mark();
+                try {
+                    %5$s%2$s(%6$s);
+                } finally {
+                    scratch$.reset(mark$);
+                }
+            }
+            """, returnType.getSimpleName(), methodName, params.toString(), runtimeHelperName(),
+            returnType == void.class ? "" : "return ", args.toString());
+    }
+
+    /**
+     * Emits an overload of a static method returning a struct by value, where the allocator parameter (at the
+     * given index) is either replaced by a segment the returned struct is written to, or dropped, in which case
+     * the returned struct is written to a per-thread return buffer (see
+     * {@link HeaderFileBuilder#emitRuntimeHelperMethods()}).
+     */
+    final void emitStructReturnOverload(String methodName, List<Class<?>> paramTypes, List<String> paramNames,
+                                        int allocatorIndex, boolean returnBuffer) {
+        String dest = "dest";
+        while (paramNames.contains(dest)) {
+            dest = "_" + dest;
+        }
+        StringJoiner params = new StringJoiner(", ");
+        StringJoiner args = new StringJoiner(", ");
+        for (int i = 0; i < paramTypes.size(); i++) {
+            String name = paramNames.get(i);
+            if (i != allocatorIndex) {
+                params.add(paramTypes.get(i).getSimpleName() + " " + name);
+                args.add(name);
+            } else if (returnBuffer) {
+                args.add(runtimeHelperName() + ".returnBuffer()");
+            } else {
+                params.add("MemorySegment " + dest);
+                args.add("(byteSize$, byteAlignment$) -> " + dest + ".asSlice(0L, byteSize$, byteAlignment$)");
+            }
+        }
+        appendLines("""
+            public static MemorySegment %1$s(%2$s) {
+                return %1$s(%3$s);
+            }
+            """, methodName, params.toString(), args.toString());
+    }
+
     public String mangleName(String javaName, Class<?> type) {
         return javaName + nameSuffix(type);
     }
@@ -252,7 +318,7 @@ abstract class ClassSourceBuilder {
     }
 
     String indentString(int size) {
-        return " ".repeat(size * 4);
+        return SourceFileBuilder.indent(size);
     }
 
     private String primitiveLayoutString(Primitive primitiveType, long typeAlign, long expectedAlign) {
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.openjdk.jextract.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A code template, that is, a piece of code with holes of the form {@code %n$s}, where {@code n} is the
+ * (1-based) index of the argument that should be inserted in the hole. Templates are parsed once, and then
+ * cached, so that appending a template to a source file does not require parsing a format string.
+ * <p>
+ * Templates which use other format specifiers are formatted with {@link String#format(String, Object...)}.
+ */
+final class CodeTemplate {
+
+    // templates are string constants, so there's a small, fixed number of them
+    private static final Map<String, CodeTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
+    // the text before each hole, followed by the text after the last hole
+    private final String[] texts;
+    // the (0-based) argument index for each hole
+    private final int[] holes;
+    // the template string, if it cannot be parsed
+    private final String format;
+
+    private CodeTemplate(String[] texts, int[] holes, String format) {
+        this.texts = texts;
+        this.holes = holes;
+        this.format = format;
+    }
+
+    static CodeTemplate of(String template) {
+        return TEMPLATES.computeIfAbsent(template, CodeTemplate::parse);
+    }
+
+    private static CodeTemplate parse(String template) {
+        List<String> texts = new ArrayList<>();
+        List<Integer> holes = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        int i = 0;
+        while (i < template.length()) {
+            char c = template.charAt(i++);
+            if (c != '%') {
+                text.append(c);
+                continue;
+            }
+            if (i < template.length() && template.charAt(i) == '%') {
+                text.append('%');
+                i++;
+                continue;
+            }
+            // expect %n$s
+            int start = i;
+            while (i < template.length() && Character.isDigit(template.charAt(i))) {
+                i++;
+            }
+            if (i == start || i + 1 >= template.length() ||
+                    template.charAt(i) != '$' || template.charAt(i + 1) != 's') {
+                // some other format specifier
+                return new CodeTemplate(null, null, template);
+            }
+            texts.add(text.toString());
+            text.setLength(0);
+            holes.add(Integer.parseInt(template, start, i, 10) - 1);
+            i += 2;
+        }
+        texts.add(text.toString());
+        return new CodeTemplate(texts.toArray(new String[0]),
+                holes.stream().mapToInt(Integer::intValue).toArray(), null);
+    }
+
+    /**
+     * Appends this template, with the given arguments, to the given source file.
+     */
+    void appendTo(SourceFileBuilder sfb, String... args) {
+        if (format != null) {
+            sfb.appendLines(String.format(format, (Object[]) args));
+            return;
+        }
+        sfb.beginLines();
+        for (int i = 0; i < holes.length; i++) {
+            sfb.appendPart(texts[i]);
+            sfb.appendPart(String.valueOf(args[holes[i]]));
+        }
+        sfb.appendPart(texts[holes.length]);
+        sfb.endLines();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.openjdk.jextract.impl;
+
+import org.openjdk.jextract.Declaration;
+import org.openjdk.jextract.impl.DeclarationImpl.Critical;
+
+import java.util.List;
+import java.util.Set;
+
+/*
+ * This visitor marks the functions whose downcall handles should be linked as critical, based on
+ * the --critical-function options specified, and on the "jextract:critical" annotation attribute, e.g.
+ *
+ * int get_x(struct point* p) __attribute__((annotate("jextract:critical")));
+ */
+public final class CriticalFunctionMarker implements Declaration.Visitor<Void, Declaration> {
+    private static final String ANNOTATE_ATTR = "AnnotateAttr";
+    private static final String CRITICAL_ANNOTATION = "jextract:critical";
+
+    private final Set<String> criticalFunctions;
+
+    public CriticalFunctionMarker(Set<String> criticalFunctions) {
+        this.criticalFunctions = criticalFunctions;
+    }
+
+    public Declaration.Scoped scan(Declaration.Scoped header) {
+        header.members().forEach(fieldTree -> fieldTree.accept(this, null));
+        return header;
+    }
+
+    @Override
+    public Void visitFunction(Declaration.Function funcTree, Declaration parent) {
+        if (criticalFunctions.contains(funcTree.name()) || hasCriticalAnnotation(funcTree)) {
+            Critical.with(funcTree);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitDeclaration(Declaration decl, Declaration parent) {
+        return null;
+    }
+
+    private static boolean hasCriticalAnnotation(Declaration decl) {
+        return decl.getAttribute(Declaration.ClangAttributes.class)
+                .map(attrs -> attrs.attributes().getOrDefault(ANNOTATE_ATTR, List.of()))
+                .orElse(List.of())
+                .contains(CRITICAL_ANNOTATION);
+    }
+}
@@ -389,6 +389,37 @@ public abstract class DeclarationImpl implements Declaration {
         }
     }
 
+    /**
+     * An attribute to mark functions whose downcall handles should be linked as critical.
+     */
+    record Critical() {
+        private static final Critical INSTANCE = new Critical();
+
+        public static void with(Declaration.Function function) {
+            function.addAttribute(INSTANCE);
+        }
+
+        public static boolean isPresent(Declaration.Function function) {
+            return function.getAttribute(Critical.class).isPresent();
+        }
+    }
+
+    /**
+     * An attribute to attach to a variadic function the argument types of the calls for which typed
+     * wrappers should be generated. Each list of types only contains the types of the variadic arguments.
+     */
+    record VariadicCalls(List<List<Type>> argTypes) {
+        public static void with(Declaration.Function function, List<List<Type>> argTypes) {
+            function.addAttribute(new VariadicCalls(argTypes));
+        }
+
+        public static List<List<Type>> get(Declaration.Function function) {
+            return function.getAttribute(VariadicCalls.class)
+                    .map(VariadicCalls::argTypes)
+                    .orElse(List.of());
+        }
+    }
+
     /**
      * An attribute to attach a Java name to a C declaration.
      */
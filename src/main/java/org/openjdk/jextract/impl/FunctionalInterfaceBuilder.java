@@ -28,7 +28,10 @@ package org.openjdk.jextract.impl;
 import org.openjdk.jextract.Declaration;
 import org.openjdk.jextract.Type;
 
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SegmentAllocator;
 import java.lang.invoke.MethodType;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -92,6 +95,67 @@ final class FunctionalInterfaceBuilder extends ClassSourceBuilder {
             public static MemorySegment allocate(%2$s.%3$s fi, Arena arena) {
                 return Linker.nativeLinker().upcallStub(UP$MH.bindTo(fi), $DESC, arena);
             }
+
+            // upcall stubs allocated by allocateCached, keyed by arena and (identity of) functional interface instance
+            private static final Map<Arena, Map<%2$s.%3$s, MemorySegment>> UP$STUBS = new WeakHashMap<>();
+
+            /**
+             * Allocates a new upcall stub, whose implementation is defined by {@code fi}, or returns the
+             * upcall stub previously allocated by this method for the same {@code fi} instance and {@code arena}.
+             * The lifetime of the returned segment is managed by {@code arena}
+             */
+            public static MemorySegment allocateCached(%2$s.%3$s fi, Arena arena) {
+                synchronized (UP$STUBS) {
+                    var stubs$ = arenaStubs$(UP$STUBS, arena);
+                    MemorySegment stub$ = stubs$.get(fi);
+                    if (stub$ == null) {
+                        stub$ = allocate(fi, arena);
+                        stubs$.put(fi, stub$);
+                    }
+                    return stub$;
+                }
+            }
+
+            // upcall stubs allocated by upcallStub, keyed by arena and (identity of) target method handle
+            private static final Map<Arena, Map<MethodHandle, MemorySegment>> UP$HANDLE_STUBS = new WeakHashMap<>();
+
+            /**
+             * {@return the upcall stub whose implementation is defined by {@code target}} The type of {@code target}
+             * must be {@code descriptor().toMethodType()} (e.g. {@code target} is a handle to a static method). The
+             * upcall stub is allocated the first time this method is called with {@code target} and {@code arena},
+             * and is shared by later calls with the same method handle and arena. The lifetime of the returned
+             * segment is managed by {@code arena}
+             */
+            public static MemorySegment upcallStub(MethodHandle target, Arena arena) {
+                synchronized (UP$HANDLE_STUBS) {
+                    var stubs$ = arenaStubs$(UP$HANDLE_STUBS, arena);
+                    MemorySegment stub$ = stubs$.get(target);
+                    if (stub$ == null) {
+                        stub$ = Linker.nativeLinker().upcallStub(target, $DESC, arena);
+                        stubs$.put(target, stub$);
+                    }
+                    return stub$;
+                }
+            }
+
+            // the stubs cached for the given arena, which are dropped when the arena is closed. Otherwise, a cached
+            // callback referring to its arena would keep the entry of the arena alive. The cleanup action does not
+            // refer to the arena, so that it does not keep an automatic arena alive either. Must be called while
+            // holding the lock of the cache
+            private static <K> Map<K, MemorySegment> arenaStubs$(Map<Arena, Map<K, MemorySegment>> cache, Arena arena) {
+                var stubs$ = cache.get(arena);
+                if (stubs$ == null) {
+                    var newStubs$ = new IdentityHashMap<K, MemorySegment>();
+                    MemorySegment.NULL.reinterpret(arena, segment$ -> {
+                        synchronized (cache) {
+                            cache.values().removeIf(s$ -> s$ == newStubs$);
+                        }
+                    });
+                    cache.put(arena, newStubs$);
+                    stubs$ = newStubs$;
+                }
+                return stubs$;
+            }
             """, runtimeHelperName(), className(), fiName);
     }
 
@@ -123,6 +187,54 @@ final class FunctionalInterfaceBuilder extends ClassSourceBuilder {
             retExpr(),
             allocArg,
             otherArgExprs());
+        if (Utils.needsStringOverload(funcType)) {
+            List<Class<?>> paramTypes = new ArrayList<>();
+            List<String> paramNames = new ArrayList<>();
+            paramTypes.add(MemorySegment.class);
+            paramNames.add("funcPtr");
+            if (needsAllocator) {
+                paramTypes.add(SegmentAllocator.class);
+                paramNames.add("alloc");
+            }
+            for (int i = 0; i < methodType.parameterCount(); i++) {
+                paramTypes.add(Utils.isConstCharPointer(funcType.argumentTypes().get(i)) ?
+                        String.class : methodType.parameterType(i));
+                paramNames.add(parameterName(i));
+            }
+            appendIndentedLines("""
+
+                /**
+                 * Invoke the upcall stub {@code funcPtr}, with given parameters (where C strings are passed as Java strings)
+                 */""");
+            incrAlign();
+            emitStringOverload("invoke", methodType.returnType(), paramTypes, paramNames);
+            decrAlign();
+        }
+        if (needsAllocator) {
+            List<Class<?>> paramTypes = new ArrayList<>(List.of(MemorySegment.class, SegmentAllocator.class));
+            List<String> paramNames = new ArrayList<>(List.of("funcPtr", "alloc"));
+            for (int i = 0; i < methodType.parameterCount(); i++) {
+                paramTypes.add(methodType.parameterType(i));
+                paramNames.add(parameterName(i));
+            }
+            appendIndentedLines("""
+
+                /**
+                 * Invoke the upcall stub {@code funcPtr}, with given parameters, and write the returned struct to the given segment
+                 */""");
+            incrAlign();
+            emitStructReturnOverload("invoke", paramTypes, paramNames, 1, false);
+            decrAlign();
+            appendIndentedLines("""
+
+                /**
+                 * Invoke the upcall stub {@code funcPtr}, with given parameters, and write the returned struct to a per-thread
+                 * buffer, which is overwritten by the next struct returned in the same thread
+                 */""");
+            incrAlign();
+            emitStructReturnOverload("invoke", paramTypes, paramNames, 1, true);
+            decrAlign();
+        }
     }
 
     // private generation
@@ -29,17 +29,23 @@ import java.lang.foreign.SegmentAllocator;
 
 import org.openjdk.jextract.Declaration;
 import org.openjdk.jextract.Type;
+import org.openjdk.jextract.impl.DeclarationImpl.Critical;
 import org.openjdk.jextract.impl.DeclarationImpl.JavaName;
+import org.openjdk.jextract.impl.DeclarationImpl.VariadicCalls;
 
 import java.lang.invoke.MethodType;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * A helper class to generate header interface class in source form.
@@ -53,28 +59,46 @@ class HeaderFileBuilder extends ClassSourceBuilder {
     private static final boolean isMacOSX =
             System.getProperty("os.name", "unknown").contains("OS X");
 
+    // number of entries initialized by each of the methods which initialize the handle table
+    private static final int TABLE_GROUP_SIZE = 64;
+
     private final Set<String> holderClassNames = new HashSet<>();
+    // maps a function descriptor and linker options to the class holding the corresponding shared downcall
+    // handle (null if handles are not shared)
+    private final BiFunction<String, String, String> downcallHolders;
+    // whether handles, segments and layouts are kept in the handle table, rather than in holder classes
+    private final boolean handleTable;
+    // initializers of the entries of the handle table (null if this class has no handle table). When downcall
+    // handles are shared, function addresses are kept in the handle table, even if holder classes are generated
+    // for the other symbols
+    private final List<String> tableEntries;
+    // maps an initializer to the index of its entry, so that equivalent entries are shared
+    private final Map<String, Integer> tableIndices = new HashMap<>();
 
-    HeaderFileBuilder(SourceFileBuilder builder, String className, String superName, String runtimeHelperName) {
+    HeaderFileBuilder(SourceFileBuilder builder, String className, String superName, String runtimeHelperName,
+                      BiFunction<String, String, String> downcallHolders, boolean handleTable) {
         super(builder, "public", Kind.CLASS, className, superName, null, runtimeHelperName);
+        this.downcallHolders = downcallHolders;
+        this.handleTable = handleTable;
+        this.tableEntries = handleTable || downcallHolders != null ? new ArrayList<>() : null;
     }
 
     public void addVar(Declaration.Variable varTree) {
         String javaName = JavaName.getOrThrow(varTree);
         appendBlankLine();
-        String holderClass = emitVarHolderClass(varTree, javaName);
+        VarRefs refs = emitVarHolderClass(varTree, javaName);
         if (Utils.isArray(varTree.type()) || Utils.isStructOrUnion(varTree.type())) {
-            emitGlobalSegmentGetter(holderClass, javaName, varTree, "Getter for variable:");
-            emitGlobalSegmentSetter(holderClass, javaName, varTree, "Setter for variable:");
+            emitGlobalSegmentGetter(refs, javaName, varTree, "Getter for variable:");
+            emitGlobalSegmentSetter(refs, javaName, varTree, "Setter for variable:");
             int dims = Utils.dimensions(varTree.type()).size();
             if (dims > 0) {
                 IndexList indexList = IndexList.of(dims);
-                emitGlobalArrayGetter(holderClass, indexList, javaName, varTree, "Indexed getter for variable:");
-                emitGlobalArraySetter(holderClass, indexList, javaName, varTree, "Indexed setter for variable:");
+                emitGlobalArrayGetter(refs, indexList, javaName, varTree, "Indexed getter for variable:");
+                emitGlobalArraySetter(refs, indexList, javaName, varTree, "Indexed setter for variable:");
             }
         } else if (Utils.isPointer(varTree.type()) || Utils.isPrimitive(varTree.type())) {
-            emitGlobalGetter(holderClass, javaName, varTree, "Getter for variable:");
-            emitGlobalSetter(holderClass, javaName, varTree, "Setter for variable:");
+            emitGlobalGetter(refs, javaName, varTree, "Getter for variable:");
+            emitGlobalSetter(refs, javaName, varTree, "Setter for variable:");
         } else {
             throw new IllegalArgumentException("Tree type not handled: " + varTree.type());
         }
@@ -172,60 +196,125 @@ class HeaderFileBuilder extends ClassSourceBuilder {
         String traceArgList = paramList.isEmpty() ?
                 String.format("\"%1$s\"", nativeName) :
                 String.format("\"%1$s\", %2$s", nativeName, paramList);
+        // array types of the parameters that can be passed as heap arrays (null for the other parameters)
+        List<Class<?>> heapArrayTypes = new ArrayList<>();
+        if (needsAllocator) {
+            heapArrayTypes.add(null);
+        }
+        decl.type().argumentTypes().forEach(t -> heapArrayTypes.add(Utils.heapArrayTypeFor(t)));
+        // heap arrays can only be passed to critical functions
+        boolean heapArrays = Critical.isPresent(decl) && !isVarArg &&
+                heapArrayTypes.stream().anyMatch(Objects::nonNull);
+        // additional arguments passed to Linker::downcallHandle
+        String linkerOptions = Critical.isPresent(decl) ?
+                String.format(", Linker.Option.critical(%1$s)", heapArrays) :
+                "";
         incrAlign();
         if (!isVarArg) {
-            String holderClass = newHolderClassName(javaName);
-            appendLines("""
+            String descriptor = functionDescriptorString(1, decl.type());
+            String lookup = String.format("SYMBOL_LOOKUP.findOrThrow(\"%1$s\")", lookupName(decl));
+            String descExpr, addrExpr, handleExpr, callHandleExpr;
+            // the address of the function, if it has to be passed to the downcall handle
+            String addrArg = null;
+            if (downcallHolders != null) {
+                // the downcall handle takes the address of the function as its first parameter
+                // (the address is kept in the handle table, so that no class is generated for each function)
+                String downcallHolder = downcallHolders.apply(descriptor, linkerOptions);
+                addrExpr = tableEntry("MemorySegment", lookup);
+                descExpr = downcallHolder + ".DESC";
+                handleExpr = tableEntry("MethodHandle", downcallHolder + ".HANDLE.bindTo(" + addrExpr + ")");
+                callHandleExpr = downcallHolder + ".HANDLE";
+                addrArg = addrExpr;
+            } else if (handleTable) {
+                descExpr = tableEntry("FunctionDescriptor", functionDescriptorString(2, decl.type()));
+                addrExpr = tableEntry("MemorySegment", lookup);
+                handleExpr = callHandleExpr = tableEntry("MethodHandle",
+                        String.format("Linker.nativeLinker().downcallHandle(%1$s, %2$s%3$s)",
+                                addrExpr, descExpr, linkerOptions));
+            } else {
+                String holderClass = newHolderClassName(javaName);
+                appendLines("""
 
-                private static class %1$s {
-                    public static final FunctionDescriptor DESC = %2$s;
+                    private static class %1$s {
+                        public static final FunctionDescriptor DESC = %2$s;
 
-                    public static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("%3$s");
+                        public static final MemorySegment ADDR = %3$s;
 
-                    public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC);
-                }
-                """, holderClass, functionDescriptorString(1, decl.type()),
-                    lookupName(decl));
+                        public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(ADDR, DESC%4$s);
+                    }
+                    """, holderClass, descriptor, lookup, linkerOptions);
+                descExpr = holderClass + ".DESC";
+                addrExpr = holderClass + ".ADDR";
+                handleExpr = callHandleExpr = holderClass + ".HANDLE";
+            }
             appendBlankLine();
             emitDocComment(decl, "Function descriptor for:");
             appendLines("""
                 public static FunctionDescriptor %1$s$descriptor() {
-                    return %2$s.DESC;
+                    return %2$s;
                 }
-                """, javaName, holderClass);
+                """, javaName, descExpr);
             appendBlankLine();
             emitDocComment(decl, "Downcall method handle for:");
             appendLines("""
                 public static MethodHandle %1$s$handle() {
-                    return %2$s.HANDLE;
+                    return %2$s;
                 }
-                """, javaName, holderClass);
+                """, javaName, handleExpr);
             appendBlankLine();
             emitDocComment(decl, "Address for:");
             appendLines("""
                 public static MemorySegment %1$s$address() {
-                    return %2$s.ADDR;
+                    return %2$s;
                 }
-                """, javaName, holderClass);
+                """, javaName, addrExpr);
             appendBlankLine();
             emitDocComment(decl);
-            appendLines("""
-            public static %1$s %2$s(%3$s) {
-                var mh$ = %4$s.HANDLE;
-                try {
-                    if (TRACE_DOWNCALLS) {
-                        traceDowncall(%5$s);
+            emitDowncallWrapper(retType, javaName, paramExprs(declType, finalParamNames, isVarArg),
+                    callHandleExpr, traceArgList, returnWithCast, callArgList(addrArg, finalParamNames));
+            if (heapArrays) {
+                // same as above, but with Java arrays (wrapped in heap segments) instead of pointers
+                List<String> arrayParams = new ArrayList<>();
+                List<String> arrayArgs = new ArrayList<>();
+                for (int i = 0; i < finalParamNames.size(); i++) {
+                    String name = finalParamNames.get(i);
+                    Class<?> arrayType = heapArrayTypes.get(i);
+                    if (arrayType != null) {
+                        arrayParams.add(arrayType.getSimpleName() + " " + name);
+                        arrayArgs.add(String.format("%1$s == null ? MemorySegment.NULL : MemorySegment.ofArray(%1$s)", name));
+                    } else {
+                        arrayParams.add(declType.parameterType(i).getSimpleName() + " " + name);
+                        arrayArgs.add(name);
+                    }
+                }
+                appendBlankLine();
+                emitDocComment(decl, "Heap array overload for:");
+                emitDowncallWrapper(retType, javaName, String.join(", ", arrayParams),
+                        callHandleExpr, traceArgList, returnWithCast, callArgList(addrArg, arrayArgs));
+            }
+            if (Utils.needsStringOverload(decl.type())) {
+                // same as above, but with Java strings instead of char pointers
+                List<Class<?>> stringParamTypes = new ArrayList<>(declType.parameterList());
+                int firstArg = needsAllocator ? 1 : 0;
+                for (int i = 0; i < decl.type().argumentTypes().size(); i++) {
+                    if (Utils.isConstCharPointer(decl.type().argumentTypes().get(i))) {
+                        stringParamTypes.set(firstArg + i, String.class);
                     }
-                    %6$smh$.invokeExact(%7$s);
-                } catch (Error | RuntimeException ex) {
-                   throw ex;
-                } catch (Throwable ex$) {
-                   throw new AssertionError("should not reach here", ex$);
                 }
+                appendBlankLine();
+                emitDocComment(decl, "String overload for:");
+                emitStringOverload(javaName, declType.returnType(), stringParamTypes, finalParamNames);
+            }
+            if (needsAllocator) {
+                // same as above, but the returned struct is written to a given segment, or to a per-thread buffer
+                appendBlankLine();
+                emitDocComment(decl, "Overload writing the returned struct to the given segment, for:");
+                emitStructReturnOverload(javaName, declType.parameterList(), finalParamNames, 0, false);
+                appendBlankLine();
+                emitDocComment(decl, "Overload writing the returned struct to a per-thread buffer, " +
+                        "which is overwritten by the next struct returned in the same thread, for:");
+                emitStructReturnOverload(javaName, declType.parameterList(), finalParamNames, 0, true);
             }
-            """, retType, javaName,
-            paramExprs(declType, finalParamNames, isVarArg),
-            holderClass, traceArgList, returnWithCast, paramList);
         } else {
             String invokerClassName = newHolderClassName(javaName);
             String paramExprs = paramExprs(declType, finalParamNames, isVarArg);
@@ -236,6 +325,9 @@ class HeaderFileBuilder extends ClassSourceBuilder {
                     private static final FunctionDescriptor BASE_DESC = %2$s;
                     private static final MemorySegment ADDR = SYMBOL_LOOKUP.findOrThrow("%3$s");
 
+                    // invokers are cached, so that each call shape is only linked once
+                    private static final Map<List<MemoryLayout>, %4$s> INVOKERS = new java.util.concurrent.ConcurrentHashMap<>();
+
                     private final MethodHandle handle;
                     private final FunctionDescriptor descriptor;
                     private final MethodHandle spreader;
@@ -252,13 +344,15 @@ class HeaderFileBuilder extends ClassSourceBuilder {
             emitDocComment(decl, "Variadic invoker factory for:");
             appendLines("""
                 public static %1$s makeInvoker(MemoryLayout... layouts) {
-                    FunctionDescriptor desc$ = BASE_DESC.appendArgumentLayouts(layouts);
-                    Linker.Option fva$ = Linker.Option.firstVariadicArg(BASE_DESC.argumentLayouts().size());
-                    var mh$ = Linker.nativeLinker().downcallHandle(ADDR, desc$, fva$);
-                    var spreader$ = mh$.asSpreader(Object[].class, layouts.length);
-                    return new %1$s(mh$, desc$, spreader$);
+                    return INVOKERS.computeIfAbsent(List.of(layouts), layouts$ -> {
+                        FunctionDescriptor desc$ = BASE_DESC.appendArgumentLayouts(layouts);
+                        Linker.Option fva$ = Linker.Option.firstVariadicArg(BASE_DESC.argumentLayouts().size());
+                        var mh$ = Linker.nativeLinker().downcallHandle(ADDR, desc$, fva$%2$s);
+                        var spreader$ = mh$.asSpreader(Object[].class, layouts.length);
+                        return new %1$s(mh$, desc$, spreader$);
+                    });
                 }
-                """, invokerClassName);
+                """, invokerClassName, linkerOptions);
             decrAlign();
             appendLines("""
 
@@ -297,10 +391,123 @@ class HeaderFileBuilder extends ClassSourceBuilder {
                     }
                 }
                 """, retType, paramExprs, traceArgList, returnWithCast, paramList);
+            Set<MethodType> variadicCallTypes = new HashSet<>();
+            for (List<Type> varArgTypes : VariadicCalls.get(decl)) {
+                emitVariadicCall(javaName, nativeName, parameterNames, decl, invokerClassName + ".ADDR",
+                        varArgTypes, linkerOptions, variadicCallTypes);
+            }
         }
         decrAlign();
     }
 
+    /*
+     * Emits a wrapper for calls to a variadic function with the given variadic argument types. Unlike
+     * variadic invokers, the wrapper has typed parameters, and its downcall handle is linked only once.
+     */
+    private void emitVariadicCall(String javaName, String nativeName, List<String> parameterNames,
+                                  Declaration.Function decl, String addrExpr, List<Type> varArgTypes,
+                                  String linkerOptions, Set<MethodType> variadicCallTypes) {
+        Type.Function type = Type.function(false, decl.type().returnType(),
+                Stream.concat(decl.type().argumentTypes().stream(), varArgTypes.stream()).toArray(Type[]::new));
+        boolean needsAllocator = Utils.isStructOrUnion(type.returnType());
+        MethodType methodType = Utils.methodTypeFor(type);
+        if (needsAllocator) {
+            methodType = methodType.insertParameterTypes(0, SegmentAllocator.class);
+        }
+        if (!variadicCallTypes.add(methodType)) {
+            // e.g. long and long long on Linux
+            return;
+        }
+        // the variadic arguments are unnamed
+        List<String> finalParamNames = finalizeParameterNames(
+                Stream.concat(parameterNames.stream(), varArgTypes.stream().map(_ -> "")).toList(),
+                needsAllocator, false);
+        String retType = methodType.returnType().getSimpleName();
+        String returnWithCast = methodType.returnType().equals(void.class) ?
+                "" :
+                String.format("return (%1$s)", retType);
+        String traceArgList = finalParamNames.isEmpty() ?
+                String.format("\"%1$s\"", nativeName) :
+                String.format("\"%1$s\", %2$s", nativeName, String.join(", ", finalParamNames));
+        String options = String.format(", Linker.Option.firstVariadicArg(%1$d)%2$s",
+                decl.type().argumentTypes().size(), linkerOptions);
+        String callHandleExpr;
+        String addrArg = null;
+        if (downcallHolders != null) {
+            callHandleExpr = downcallHolders.apply(functionDescriptorString(1, type), options) + ".HANDLE";
+            addrArg = addrExpr;
+        } else if (handleTable) {
+            callHandleExpr = tableEntry("MethodHandle",
+                    String.format("Linker.nativeLinker().downcallHandle(%1$s, %2$s%3$s)",
+                            addrExpr, functionDescriptorString(2, type), options));
+        } else {
+            String holderClass = newHolderClassName(javaName);
+            appendLines("""
+
+                private static class %1$s {
+                    public static final FunctionDescriptor DESC = %2$s;
+
+                    public static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(%3$s, DESC%4$s);
+                }
+                """, holderClass, functionDescriptorString(1, type), addrExpr, options);
+            callHandleExpr = holderClass + ".HANDLE";
+        }
+        appendBlankLine();
+        emitDocComment(decl, "Variadic call wrapper for:");
+        emitDowncallWrapper(retType, javaName, paramExprs(methodType, finalParamNames, false),
+                callHandleExpr, traceArgList, returnWithCast, callArgList(addrArg, finalParamNames));
+        if (Utils.needsStringOverload(type)) {
+            List<Class<?>> stringParamTypes = new ArrayList<>(methodType.parameterList());
+            int firstArg = needsAllocator ? 1 : 0;
+            for (int i = 0; i < type.argumentTypes().size(); i++) {
+                if (Utils.isConstCharPointer(type.argumentTypes().get(i))) {
+                    stringParamTypes.set(firstArg + i, String.class);
+                }
+            }
+            appendBlankLine();
+            emitDocComment(decl, "String overload of variadic call wrapper for:");
+            emitStringOverload(javaName, methodType.returnType(), stringParamTypes, finalParamNames);
+        }
+    }
+
+    private void emitDowncallWrapper(String retType, String javaName, String paramExprs, String handleExpr,
+                                     String traceArgList, String returnWithCast, String callArgList) {
+        appendLines("""
+            public static %1$s %2$s(%3$s) {
+                var mh$ = %4$s;
+                try {
+                    if (TRACE_DOWNCALLS) {
+                        traceDowncall(%5$s);
+                    }
+                    %6$smh$.invokeExact(%7$s);
+                } catch (Error | RuntimeException ex) {
+                   throw ex;
+                } catch (Throwable ex$) {
+                   throw new AssertionError("should not reach here", ex$);
+                }
+            }
+            """, retType, javaName, paramExprs, handleExpr, traceArgList, returnWithCast, callArgList);
+    }
+
+    private static String callArgList(String addrArg, List<String> args) {
+        return addrArg == null ?
+                String.join(", ", args) :
+                String.join(", ", Stream.concat(Stream.of(addrArg), args.stream()).toList());
+    }
+
+    void emitDowncallHolder(String holderName, String descriptor, String linkerOptions) {
+        incrAlign();
+        appendLines("""
+
+            static final class %1$s {
+                static final FunctionDescriptor DESC = %2$s;
+
+                static final MethodHandle HANDLE = Linker.nativeLinker().downcallHandle(DESC%3$s);
+            }
+            """, holderName, descriptor, linkerOptions);
+        decrAlign();
+    }
+
     void emitPrimitiveTypedef(Declaration.Typedef typedefTree, Type.Primitive primType, String name) {
         emitPrimitiveTypedefLayout(name, primType, typedefTree);
     }
@@ -380,6 +587,74 @@ class HeaderFileBuilder extends ClassSourceBuilder {
                 }
             }
 
+            static ScratchBuffer scratchBuffer() {
+                return SCRATCH_BUFFERS.get();
+            }
+
+            private static final ThreadLocal<ScratchBuffer> SCRATCH_BUFFERS = ThreadLocal.withInitial(ScratchBuffer::new);
+
+            /**
+             * A per-thread stack of native memory, used to pass Java strings to native functions.
+             * Strings are allocated past the current mark, and their memory is reclaimed when the
+             * buffer is reset to that mark, so that nested (e.g. reentrant) uses do not interfere.
+             * When the buffer grows, a new segment is allocated; strings in the old segment remain
+             * valid, as they keep that segment alive.
+             */
+            static final class ScratchBuffer {
+                private MemorySegment segment = MemorySegment.NULL;
+                private long offset;
+
+                long mark() {
+                    return offset;
+                }
+
+                void reset(long mark) {
+                    offset = mark;
+                }
+
+                MemorySegment allocateFrom(String str) {
+                    if (str == null) {
+                        return MemorySegment.NULL;
+                    }
+                    // a char is encoded with at most 3 bytes in UTF-8, plus the terminator
+                    long size = 3L * str.length() + 1;
+                    if (offset + size > segment.byteSize()) {
+                        segment = Arena.ofAuto().allocate(Math.max(256, 2 * (offset + size)));
+                    }
+                    MemorySegment cstr = segment.asSlice(offset, size);
+                    cstr.setString(0, str);
+                    offset += size;
+                    return cstr;
+                }
+            }
+
+            static SegmentAllocator returnBuffer() {
+                return RETURN_BUFFERS.get();
+            }
+
+            private static final ThreadLocal<ReturnBuffer> RETURN_BUFFERS = ThreadLocal.withInitial(ReturnBuffer::new);
+
+            /**
+             * A per-thread allocator, used to return structs by value. Each allocation returns the same
+             * memory, so a struct returned in this buffer is only valid until the next struct is
+             * returned in the same thread. Segments are only allocated when the requested size changes.
+             */
+            static final class ReturnBuffer implements SegmentAllocator {
+                private MemorySegment buffer = MemorySegment.NULL;
+                private MemorySegment segment = MemorySegment.NULL;
+
+                @Override
+                public MemorySegment allocate(long byteSize, long byteAlignment) {
+                    if (segment.byteSize() != byteSize || segment.address() % byteAlignment != 0) {
+                        if (buffer.byteSize() < byteSize || buffer.address() % byteAlignment != 0) {
+                            buffer = Arena.ofAuto().allocate(Math.max(byteSize, 64), Math.max(byteAlignment, 16));
+                        }
+                        segment = buffer.asSlice(0, byteSize);
+                    }
+                    return segment;
+                }
+            }
+
             static MemoryLayout align(MemoryLayout layout, long align) {
                 return switch (layout) {
                     case PaddingLayout p -> p;
@@ -416,7 +691,7 @@ class HeaderFileBuilder extends ClassSourceBuilder {
             appendIndentedLines("public static final ValueLayout.OfLong C_LONG = (ValueLayout.OfLong) Linker.nativeLinker().canonicalLayouts().get(\"long\");");
         }
     }
-    private void emitGlobalGetter(String holderClass, String javaName,
+    private void emitGlobalGetter(VarRefs refs, String javaName,
                                   Declaration.Variable decl, String docHeader) {
         appendBlankLine();
         incrAlign();
@@ -424,13 +699,13 @@ class HeaderFileBuilder extends ClassSourceBuilder {
         Class<?> type = Utils.carrierFor(decl.type());
         appendLines("""
             public static %1$s %2$s() {
-                return %3$s.SEGMENT.get(%3$s.LAYOUT, 0L);
+                return %3$s.get(%4$s, 0L);
             }
-            """, type.getSimpleName(), javaName, holderClass);
+            """, type.getSimpleName(), javaName, refs.segment(), refs.layout());
         decrAlign();
     }
 
-    private void emitGlobalSetter(String holderClass, String javaName,
+    private void emitGlobalSetter(VarRefs refs, String javaName,
                                   Declaration.Variable decl, String docHeader) {
         appendBlankLine();
         incrAlign();
@@ -438,39 +713,39 @@ class HeaderFileBuilder extends ClassSourceBuilder {
         Class<?> type = Utils.carrierFor(decl.type());
         appendLines("""
             public static void %1$s(%2$s varValue) {
-                %3$s.SEGMENT.set(%3$s.LAYOUT, 0L, varValue);
+                %3$s.set(%4$s, 0L, varValue);
             }
-            """, javaName, type.getSimpleName(), holderClass);
+            """, javaName, type.getSimpleName(), refs.segment(), refs.layout());
         decrAlign();
     }
 
-    private void emitGlobalSegmentGetter(String holderClass, String javaName,
+    private void emitGlobalSegmentGetter(VarRefs refs, String javaName,
                                          Declaration.Variable varTree, String docHeader) {
         appendBlankLine();
         incrAlign();
         emitDocComment(varTree, docHeader);
         appendLines("""
             public static MemorySegment %1$s() {
-                return %2$s.SEGMENT;
+                return %2$s;
             }
-            """, javaName, holderClass);
+            """, javaName, refs.segment());
         decrAlign();
     }
 
-    private void emitGlobalSegmentSetter(String holderClass, String javaName,
+    private void emitGlobalSegmentSetter(VarRefs refs, String javaName,
                                          Declaration.Variable varTree, String docHeader) {
         appendBlankLine();
         incrAlign();
         emitDocComment(varTree, docHeader);
         appendLines("""
             public static void %1$s(MemorySegment varValue) {
-                MemorySegment.copy(varValue, 0L, %2$s.SEGMENT, 0L, %2$s.LAYOUT.byteSize());
+                MemorySegment.copy(varValue, 0L, %2$s, 0L, %3$s.byteSize());
             }
-            """, javaName, holderClass);
+            """, javaName, refs.segment(), refs.layout());
         decrAlign();
     }
 
-    private void emitGlobalArrayGetter(String holderClass, IndexList indexList,
+    private void emitGlobalArrayGetter(VarRefs refs, IndexList indexList,
                                        String javaName, Declaration.Variable varTree, String docHeader) {
         Type elemType = Utils.typeOrElemType(varTree.type());
         Class<?> typeCls = Utils.carrierFor(elemType);
@@ -481,26 +756,26 @@ class HeaderFileBuilder extends ClassSourceBuilder {
             appendLines("""
                 public static MemorySegment %1$s(%2$s) {
                     try {
-                        return (MemorySegment)%3$s.HANDLE.invokeExact(%3$s.SEGMENT, 0L, %4$s);
+                        return (MemorySegment)%3$s.invokeExact(%4$s, 0L, %5$s);
                     } catch (Error | RuntimeException ex) {
                         throw ex;
                     } catch (Throwable ex$) {
                         throw new AssertionError("should not reach here", ex$);
                     }
                 }
-                """, javaName, indexList.decl(), holderClass, indexList.use());
+                """, javaName, indexList.decl(), refs.handle(), refs.segment(), indexList.use());
         } else {
             appendLines("""
                 public static %1$s %2$s(%3$s) {
-                    return (%1$s)%4$s.HANDLE.get(%4$s.SEGMENT, 0L, %5$s);
+                    return (%1$s)%4$s.get(%5$s, 0L, %6$s);
                 }
                 """, typeCls.getSimpleName(), javaName, indexList.decl(),
-                    holderClass, indexList.use());
+                    refs.handle(), refs.segment(), indexList.use());
         }
         decrAlign();
     }
 
-    private void emitGlobalArraySetter(String holderClass, IndexList indexList,
+    private void emitGlobalArraySetter(VarRefs refs, IndexList indexList,
                                        String javaName, Declaration.Variable varTree, String docHeader) {
         Type elemType = Utils.typeOrElemType(varTree.type());
         Class<?> typeCls = Utils.carrierFor(elemType);
@@ -516,78 +791,119 @@ class HeaderFileBuilder extends ClassSourceBuilder {
         } else {
             appendLines("""
                 public static void %1$s(%2$s, %3$s varValue) {
-                    %4$s.HANDLE.set(%4$s.SEGMENT, 0L, %5$s, varValue);
+                    %4$s.set(%5$s, 0L, %6$s, varValue);
                 }
-                """, javaName, indexList.decl(), typeCls.getSimpleName(), holderClass, indexList.use());
+                """, javaName, indexList.decl(), typeCls.getSimpleName(), refs.handle(), refs.segment(),
+                    indexList.use());
         }
         decrAlign();
     }
 
-    private String emitVarHolderClass(Declaration.Variable var, String javaName) {
+    // expressions for the layout, the segment and (for arrays) the access handle of a variable
+    private record VarRefs(String layout, String segment, String handle, String dims) { }
+
+    private VarRefs emitVarHolderClass(Declaration.Variable var, String javaName) {
         Type varType = var.type();
-        String mangledName = newHolderClassName(String.format("%1$s$constants", javaName));
         String layoutType = Utils.layoutCarrierFor(varType).getSimpleName();
+        String lookup = String.format("SYMBOL_LOOKUP.findOrThrow(\"%1$s\")", lookupName(var));
+        List<Long> dimensions = Utils.dimensions(varType);
+        String path = IntStream.range(0, dimensions.size())
+                .mapToObj(_ -> "sequenceElement()")
+                .collect(Collectors.joining(", "));
+        boolean sliceHandle = Utils.isStructOrUnion(Utils.typeOrElemType(varType));
+        String dimsString = dimensions.stream().map(Object::toString)
+                .collect(Collectors.joining(", "));
+        if (handleTable) {
+            String layout = tableEntry(layoutType, layoutString(varType));
+            String segment = tableEntry("MemorySegment",
+                    String.format("%1$s.reinterpret(%2$s.byteSize())", lookup, layout));
+            String handle = null;
+            String dims = null;
+            if (varType instanceof Type.Array) {
+                handle = sliceHandle ?
+                        tableEntry("MethodHandle", layout + ".sliceHandle(" + path + ")") :
+                        tableEntry("VarHandle", layout + ".varHandle(" + path + ")");
+                // the dimensions are a mutable array, so they cannot be published through the table
+                dims = newHolderClassName(String.format("%1$s$DIMS", javaName));
+                appendIndentedLines("""
+                    private static final long[] %1$s = { %2$s };
+                    """, dims, dimsString);
+            }
+            return emitVarAccessors(var, javaName, layoutType, new VarRefs(layout, segment, handle, dims));
+        }
+        String mangledName = newHolderClassName(String.format("%1$s$constants", javaName));
         if (varType instanceof Type.Array) {
-            List<Long> dimensions = Utils.dimensions(varType);
-            String path = IntStream.range(0, dimensions.size())
-                    .mapToObj(_ -> "sequenceElement()")
-                    .collect(Collectors.joining(", "));
-            Type elemType = Utils.typeOrElemType(varType);
-            String accessHandle = Utils.isStructOrUnion(elemType) ?
+            String accessHandle = sliceHandle ?
                     "public static final MethodHandle HANDLE = LAYOUT.sliceHandle(" + path + ");" :
                     "public static final VarHandle HANDLE = LAYOUT.varHandle(" + path + ");\n";
-            String dimsString = dimensions.stream().map(Object::toString)
-                    .collect(Collectors.joining(", "));
             appendIndentedLines("""
                 private static class %1$s {
                     public static final %2$s LAYOUT = %3$s;
-                    public static final MemorySegment SEGMENT = SYMBOL_LOOKUP.findOrThrow("%4$s").reinterpret(LAYOUT.byteSize());
+                    public static final MemorySegment SEGMENT = %4$s.reinterpret(LAYOUT.byteSize());
                 %5$s
                     public static final long[] DIMS = { %6$s };
                 }
-                """, mangledName, layoutType, layoutString(varType),lookupName(var),
+                """, mangledName, layoutType, layoutString(varType), lookup,
                     accessHandle, dimsString);
         } else {
             appendIndentedLines("""
                 private static class %1$s {
                     public static final %2$s LAYOUT = %3$s;
-                    public static final MemorySegment SEGMENT = SYMBOL_LOOKUP.findOrThrow("%4$s").reinterpret(LAYOUT.byteSize());
+                    public static final MemorySegment SEGMENT = %4$s.reinterpret(LAYOUT.byteSize());
                 }
-                """, mangledName, layoutType, layoutString(varType), lookupName(var));
+                """, mangledName, layoutType, layoutString(varType), lookup);
         }
+        return emitVarAccessors(var, javaName, layoutType, new VarRefs(mangledName + ".LAYOUT",
+                mangledName + ".SEGMENT", mangledName + ".HANDLE", mangledName + ".DIMS"));
+    }
+
+    private VarRefs emitVarAccessors(Declaration.Variable var, String javaName, String layoutType, VarRefs refs) {
+        Type varType = var.type();
         incrAlign();
         appendBlankLine();
         emitDocComment(var, "Layout for variable:");
         appendLines("""
                 public static %1$s %2$s$layout() {
-                    return %3$s.LAYOUT;
+                    return %3$s;
                 }
-                """, layoutType, javaName, mangledName);
+                """, layoutType, javaName, refs.layout());
         if (!Utils.isStructOrUnion(varType) && !Utils.isArray(varType)) {
             appendBlankLine();
             emitDocComment(var, "Segment for variable:");
             appendLines("""
                     public static MemorySegment %1$s$segment() {
-                        return %2$s.SEGMENT;
+                        return %2$s;
                     }
-                    """, javaName, mangledName);
+                    """, javaName, refs.segment());
         }
         if (varType instanceof Type.Array) {
             appendBlankLine();
             emitDocComment(var, "Dimensions for array variable:");
             appendLines("""
                 public static long[] %1$s$dimensions() {
-                    return %2$s.DIMS;
+                    return %2$s;
                 }
-                """, javaName, mangledName);
+                """, javaName, refs.dims());
         }
         decrAlign();
-        return mangledName;
+        return refs;
     }
 
     private void emitConstant(Class<?> javaType, String constantName, Object value, Declaration declaration) {
         incrAlign();
-        if (value instanceof String) {
+        if (value instanceof String && handleTable) {
+            String segment = tableEntry(javaType.getSimpleName(), String.format("%1$s.LIBRARY_ARENA.allocateFrom(\"%2$s\")",
+                    runtimeHelperName(), Utils.quote(Objects.toString(value))));
+            emitDocComment(declaration);
+            appendLines("""
+                public static %1$s %2$s() {
+                    return %3$s;
+                }
+                """,
+                javaType.getSimpleName(),
+                constantName,
+                segment);
+        } else if (value instanceof String) {
             emitDocComment(declaration);
             appendLines("""
                 public static %1$s %2$s() {
@@ -671,6 +987,82 @@ class HeaderFileBuilder extends ClassSourceBuilder {
         decrAlign();
     }
 
+    /**
+     * Adds an entry to the handle table of this class, unless an entry with the same initializer already exists.
+     * @param type the type of the entry.
+     * @param initializer an expression computing the value of the entry, evaluated the first time the entry is used.
+     * @return an expression which evaluates to the value of the entry.
+     */
+    private String tableEntry(String type, String initializer) {
+        int index = tableIndices.computeIfAbsent(initializer, _ -> {
+            tableEntries.add(initializer);
+            return tableEntries.size() - 1;
+        });
+        return String.format("((%1$s)table$(%2$d))", type, index);
+    }
+
+    /**
+     * Emits the handle table of this class (if any). The entries of the table are initialized lazily, so that,
+     * as with holder classes, symbols are only looked up (and method handles are only created) when they are
+     * first used. Entries are read with acquire semantics, and written with release semantics, so that a thread
+     * which observes an entry also observes the initialized state of its value. Entries are initialized while
+     * holding the lock of the table, so that each entry is initialized exactly once (some initializers, such as
+     * those allocating string constants in the library arena, must not run more than once). The initializers
+     * are split into several methods, so that no method grows beyond the bytecode size limit.
+     * <p>
+     * Unlike static final fields, table entries are not constants for the JIT compiler, so a method handle
+     * read from the table cannot be inlined into its caller. When downcall handles are shared, the table only
+     * holds function addresses, and the (constant) shared handles can still be inlined.
+     */
+    void emitHandleTable() {
+        if (tableEntries == null || tableEntries.isEmpty()) {
+            return;
+        }
+        int groups = (tableEntries.size() + TABLE_GROUP_SIZE - 1) / TABLE_GROUP_SIZE;
+        String groupCases = IntStream.range(0, groups)
+                .mapToObj(group -> String.format("%1$scase %2$d -> table$%2$d(index);", indentString(5), group))
+                .collect(Collectors.joining("\n"));
+        appendIndentedLines("""
+
+            private static final Object[] TABLE$ = new Object[%1$s];
+
+            private static final VarHandle TABLE$HANDLE = MethodHandles.arrayElementVarHandle(Object[].class);
+
+            private static Object table$(int index) {
+                Object value = TABLE$HANDLE.getAcquire(TABLE$, index);
+                if (value == null) {
+                    synchronized (TABLE$) {
+                        value = TABLE$HANDLE.getAcquire(TABLE$, index);
+                        if (value == null) {
+                            value = switch (index / %2$s) {
+            %3$s
+                                default -> throw new AssertionError(index);
+                            };
+                            TABLE$HANDLE.setRelease(TABLE$, index, value);
+                        }
+                    }
+                }
+                return value;
+            }
+            """, String.valueOf(tableEntries.size()), String.valueOf(TABLE_GROUP_SIZE), groupCases);
+        for (int group = 0; group < groups; group++) {
+            String entryCases = IntStream.range(group * TABLE_GROUP_SIZE,
+                            Math.min(tableEntries.size(), (group + 1) * TABLE_GROUP_SIZE))
+                    .mapToObj(index -> String.format("%1$scase %2$d -> %3$s;", indentString(2), index,
+                            tableEntries.get(index)))
+                    .collect(Collectors.joining("\n"));
+            appendIndentedLines("""
+
+                private static Object table$%1$s(int index) {
+                    return switch (index) {
+                %2$s
+                        default -> throw new AssertionError(index);
+                    };
+                }
+                """, String.valueOf(group), entryCases);
+        }
+    }
+
     private String newHolderClassName(String javaName) {
         String holderClassName = javaName;
         while (!holderClassNames.add(holderClassName.toLowerCase())) {
@@ -127,10 +127,36 @@ public class IncludeHelper {
         }
     }
 
+    /**
+     * {@return {@code false} if the given declaration is going to be excluded by the include filters}.
+     * Unlike {@link #isIncluded(Declaration.Function)} and friends, this method can be called while parsing,
+     * as it does not record the declaration. Declarations which are not checked by the include filters
+     * (e.g. struct fields and anonymous structs) are assumed to be included.
+     */
+    public boolean mayBeIncluded(Declaration declaration) {
+        if (!isEnabled()) {
+            return true;
+        }
+        IncludeKind kind = switch (declaration) {
+            case Declaration.Function _ -> IncludeKind.FUNCTION;
+            case Declaration.Typedef _ -> IncludeKind.TYPEDEF;
+            case Declaration.Variable var when var.kind() == Declaration.Variable.Kind.GLOBAL -> IncludeKind.VAR;
+            case Declaration.Scoped scoped when Utils.isStructOrUnion(scoped) && !scoped.name().isEmpty() ->
+                    IncludeKind.fromScoped(scoped);
+            default -> null;
+        };
+        return kind == null ||
+                includesSymbolNamesByKind.getOrDefault(kind, Set.of()).contains(declaration.name());
+    }
+
     public boolean isEnabled() {
         return includesSymbolNamesByKind.size() > 0;
     }
 
+    public boolean hasSymbols(IncludeKind kind) {
+        return !includesSymbolNamesByKind.getOrDefault(kind, Set.of()).isEmpty();
+    }
+
     public void dumpIncludes() {
         try (var writer = Files.newBufferedWriter(Path.of(dumpIncludesFile), StandardOpenOption.CREATE)) {
             Map<Path, Set<Declaration>> declsByPath = usedDeclarations.stream()
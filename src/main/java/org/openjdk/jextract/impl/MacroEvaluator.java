@@ -0,0 +1,882 @@
+/*
+ *  Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ *   Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ *  or visit www.oracle.com if you need additional information or have any
+ *  questions.
+ *
+ */
+
+package org.openjdk.jextract.impl;
+
+import org.openjdk.jextract.Type;
+import org.openjdk.jextract.Type.Delegated;
+import org.openjdk.jextract.Type.Primitive;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * A Java evaluator for the constant expressions found in the replacement list of object-like macros.
+ * The evaluator supports integer, floating-point, character and string literals, unary and binary
+ * arithmetic, bitwise, relational and logical operators, the conditional operator, casts to arithmetic
+ * types, and references to macros which have already been evaluated. Integer literals and operators
+ * follow the C typing rules (literal suffixes, integer promotions and usual arithmetic conversions), so
+ * that the computed type and value match those computed by clang.
+ * <p>
+ * Evaluation fails (and an empty result is returned) if an expression cannot be evaluated precisely
+ * in Java, e.g. because it refers to identifiers other than evaluated macros (such as enum constants),
+ * uses {@code sizeof}, casts to a typedef name, or has undefined behavior (such as signed overflow
+ * or division by zero). In such cases, clients should fall back to clang evaluation.
+ */
+final class MacroEvaluator {
+
+    /**
+     * The arithmetic types supported by the evaluator, in increasing conversion rank. String literals
+     * are also modelled as a kind, but cannot be used as operands.
+     */
+    enum Kind {
+        SCHAR(8, true),
+        UCHAR(8, false),
+        SHORT(16, true),
+        USHORT(16, false),
+        INT(32, true),
+        UINT(32, false),
+        LONG(TypeImpl.IS_WINDOWS ? 32 : 64, true),
+        ULONG(TypeImpl.IS_WINDOWS ? 32 : 64, false),
+        LONGLONG(64, true),
+        ULONGLONG(64, false),
+        FLOAT(0, true),
+        DOUBLE(0, true),
+        STRING(0, false);
+
+        final int width;
+        final boolean signed;
+
+        Kind(int width, boolean signed) {
+            this.width = width;
+            this.signed = signed;
+        }
+
+        boolean isInteger() {
+            return width > 0;
+        }
+
+        boolean isFloatingPoint() {
+            return this == FLOAT || this == DOUBLE;
+        }
+
+        // the C integer conversion rank of this kind; signed and unsigned variants share the same rank
+        int rank() {
+            return ordinal() / 2;
+        }
+
+        Kind toUnsigned() {
+            return signed ? values()[ordinal() + 1] : this;
+        }
+
+        Type type() {
+            return switch (this) {
+                case SCHAR -> Type.qualified(Delegated.Kind.SIGNED, Type.primitive(Primitive.Kind.Char));
+                case UCHAR -> Type.qualified(Delegated.Kind.UNSIGNED, Type.primitive(Primitive.Kind.Char));
+                case SHORT -> Type.primitive(Primitive.Kind.Short);
+                case USHORT -> Type.qualified(Delegated.Kind.UNSIGNED, Type.primitive(Primitive.Kind.Short));
+                case INT -> Type.primitive(Primitive.Kind.Int);
+                case UINT -> Type.qualified(Delegated.Kind.UNSIGNED, Type.primitive(Primitive.Kind.Int));
+                case LONG -> Type.primitive(Primitive.Kind.Long);
+                case ULONG -> Type.qualified(Delegated.Kind.UNSIGNED, Type.primitive(Primitive.Kind.Long));
+                case LONGLONG -> Type.primitive(Primitive.Kind.LongLong);
+                case ULONGLONG -> Type.qualified(Delegated.Kind.UNSIGNED, Type.primitive(Primitive.Kind.LongLong));
+                case FLOAT -> Type.primitive(Primitive.Kind.Float);
+                case DOUBLE -> Type.primitive(Primitive.Kind.Double);
+                case STRING -> Type.pointer(Type.primitive(Primitive.Kind.Char));
+            };
+        }
+    }
+
+    /**
+     * The result of evaluating an expression. Integer values are stored in {@code bits}, sign-extended
+     * (for signed kinds) or zero-extended (for unsigned kinds) to 64 bits. Floating-point values are stored
+     * in {@code fp} (float values are always exactly representable as doubles).
+     */
+    record Value(Kind kind, long bits, double fp, String str) {
+
+        static Value ofInteger(Kind kind, long bits) {
+            return new Value(kind, normalize(kind, bits), 0, null);
+        }
+
+        static Value ofFloatingPoint(Kind kind, double fp) {
+            return new Value(kind, 0, kind == Kind.FLOAT ? (float)fp : fp, null);
+        }
+
+        static Value ofString(String str) {
+            return new Value(Kind.STRING, 0, 0, str);
+        }
+
+        Type type() {
+            return kind.type();
+        }
+
+        /**
+         * {@return the value of this constant, as expected by {@link TreeMaker#createMacro(org.openjdk.jextract.Position, String, Type, Object)}}
+         */
+        Object constantValue() {
+            return switch (kind) {
+                case FLOAT, DOUBLE -> fp;
+                case STRING -> str;
+                default -> bits;
+            };
+        }
+
+        boolean isTrue() {
+            return kind.isFloatingPoint() ? fp != 0 : bits != 0;
+        }
+
+        private static long normalize(Kind kind, long bits) {
+            int shift = 64 - kind.width;
+            return kind.signed ?
+                    (bits << shift) >> shift :
+                    (bits << shift) >>> shift;
+        }
+    }
+
+    private static final class EvaluationFailedException extends RuntimeException {
+        private static final EvaluationFailedException INSTANCE = new EvaluationFailedException();
+
+        private EvaluationFailedException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private final String[] tokens;
+    private final Function<String, Optional<Value>> macroLookup;
+    private int pos;
+
+    private MacroEvaluator(String[] tokens, int start, Function<String, Optional<Value>> macroLookup) {
+        this.tokens = tokens;
+        this.macroLookup = macroLookup;
+        this.pos = start;
+    }
+
+    /**
+     * Evaluates the tokens of an object-like macro. The first token is the name of the macro, and is skipped.
+     * Identifiers in the replacement list are resolved using the provided lookup function.
+     * @param tokens the macro tokens.
+     * @param macroLookup a function returning the value of a previously evaluated macro, if any.
+     * @return the value of the macro, or an empty optional if the macro could not be evaluated.
+     */
+    static Optional<Value> evaluate(String[] tokens, Function<String, Optional<Value>> macroLookup) {
+        if (tokens.length < 2) {
+            return Optional.empty();
+        }
+        MacroEvaluator evaluator = new MacroEvaluator(tokens, 1, macroLookup);
+        try {
+            Value value = evaluator.conditional();
+            return evaluator.pos == tokens.length ?
+                    Optional.of(value) : Optional.empty();
+        } catch (EvaluationFailedException ex) {
+            return Optional.empty();
+        }
+    }
+
+    private static EvaluationFailedException fail() {
+        return EvaluationFailedException.INSTANCE;
+    }
+
+    // token stream
+
+    private String peek() {
+        return pos < tokens.length ? tokens[pos] : null;
+    }
+
+    private String peek(int offset) {
+        return pos + offset < tokens.length ? tokens[pos + offset] : null;
+    }
+
+    private boolean accept(String token) {
+        if (token.equals(peek())) {
+            pos++;
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    private void expect(String token) {
+        if (!accept(token)) {
+            throw fail();
+        }
+    }
+
+    // expressions, in increasing order of precedence
+
+    private Value conditional() {
+        Value cond = logicalOr();
+        if (accept("?")) {
+            Value ifTrue = conditional();
+            expect(":");
+            Value ifFalse = conditional();
+            Kind kind = commonKind(scalar(ifTrue), scalar(ifFalse));
+            return convert(scalar(cond).isTrue() ? ifTrue : ifFalse, kind);
+        }
+        return cond;
+    }
+
+    private Value logicalOr() {
+        Value left = logicalAnd();
+        while (accept("||")) {
+            Value right = logicalAnd();
+            left = bool(scalar(left).isTrue() || scalar(right).isTrue());
+        }
+        return left;
+    }
+
+    private Value logicalAnd() {
+        Value left = bitwiseOr();
+        while (accept("&&")) {
+            Value right = bitwiseOr();
+            left = bool(scalar(left).isTrue() && scalar(right).isTrue());
+        }
+        return left;
+    }
+
+    private Value bitwiseOr() {
+        Value left = bitwiseXor();
+        while (accept("|")) {
+            left = bitwise("|", left, bitwiseXor());
+        }
+        return left;
+    }
+
+    private Value bitwiseXor() {
+        Value left = bitwiseAnd();
+        while (accept("^")) {
+            left = bitwise("^", left, bitwiseAnd());
+        }
+        return left;
+    }
+
+    private Value bitwiseAnd() {
+        Value left = equality();
+        while (accept("&")) {
+            left = bitwise("&", left, equality());
+        }
+        return left;
+    }
+
+    private Value equality() {
+        Value left = relational();
+        while (true) {
+            String op = peek();
+            if ("==".equals(op) || "!=".equals(op)) {
+                pos++;
+                left = compare(op, left, relational());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Value relational() {
+        Value left = shift();
+        while (true) {
+            String op = peek();
+            if ("<".equals(op) || ">".equals(op) || "<=".equals(op) || ">=".equals(op)) {
+                pos++;
+                left = compare(op, left, shift());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Value shift() {
+        Value left = additive();
+        while (true) {
+            String op = peek();
+            if ("<<".equals(op) || ">>".equals(op)) {
+                pos++;
+                left = shift(op, left, additive());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Value additive() {
+        Value left = multiplicative();
+        while (true) {
+            String op = peek();
+            if ("+".equals(op) || "-".equals(op)) {
+                pos++;
+                left = arithmetic(op, left, multiplicative());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Value multiplicative() {
+        Value left = unary();
+        while (true) {
+            String op = peek();
+            if ("*".equals(op) || "/".equals(op) || "%".equals(op)) {
+                pos++;
+                left = arithmetic(op, left, unary());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Value unary() {
+        String token = peek();
+        if (token == null) {
+            throw fail();
+        }
+        switch (token) {
+            case "+" -> {
+                pos++;
+                return promote(scalar(unary()));
+            }
+            case "-" -> {
+                pos++;
+                Value operand = promote(scalar(unary()));
+                if (operand.kind().isFloatingPoint()) {
+                    return Value.ofFloatingPoint(operand.kind(), -operand.fp());
+                } else if (operand.kind().signed) {
+                    return checkRange(operand.kind(), negateExact(operand.bits()));
+                } else {
+                    return Value.ofInteger(operand.kind(), -operand.bits());
+                }
+            }
+            case "~" -> {
+                pos++;
+                Value operand = promote(integer(unary()));
+                return Value.ofInteger(operand.kind(), ~operand.bits());
+            }
+            case "!" -> {
+                pos++;
+                return bool(!scalar(unary()).isTrue());
+            }
+            case "(" -> {
+                Kind castKind = castType();
+                if (castKind != null) {
+                    return convert(scalar(unary()), castKind);
+                }
+                pos++;
+                Value value = conditional();
+                expect(")");
+                return value;
+            }
+            default -> {
+                return primary();
+            }
+        }
+    }
+
+    private Value primary() {
+        String token = tokens[pos++];
+        char first = token.charAt(0);
+        if (first == '"') {
+            StringBuilder buf = new StringBuilder(parseQuoted(token, '"'));
+            // adjacent string literals are concatenated
+            while (peek() != null && peek().charAt(0) == '"') {
+                buf.append(parseQuoted(tokens[pos++], '"'));
+            }
+            return Value.ofString(buf.toString());
+        } else if (first == '\'') {
+            String chars = parseQuoted(token, '\'');
+            if (chars.length() != 1) {
+                // multi-character constants have an implementation-defined value
+                throw fail();
+            }
+            return Value.ofInteger(Kind.INT, chars.charAt(0));
+        } else if (Character.isDigit(first) || (first == '.' && token.length() > 1)) {
+            return parseNumber(token);
+        } else if (Character.isJavaIdentifierStart(first)) {
+            return macroLookup.apply(token).orElseThrow(MacroEvaluator::fail);
+        } else {
+            throw fail();
+        }
+    }
+
+    /*
+     * Attempts to parse a cast to an arithmetic type at the current position. If successful, the type
+     * of the cast is returned, and the position is moved past the closing parenthesis. Otherwise, null is
+     * returned and the position is left unchanged.
+     */
+    private Kind castType() {
+        int chars = 0, shorts = 0, ints = 0, longs = 0, signeds = 0, unsigneds = 0, floats = 0, doubles = 0;
+        int i = 1;
+        String token;
+        while ((token = peek(i)) != null && !token.equals(")")) {
+            switch (token) {
+                case "char" -> chars++;
+                case "short" -> shorts++;
+                case "int" -> ints++;
+                case "long" -> longs++;
+                case "signed" -> signeds++;
+                case "unsigned" -> unsigneds++;
+                case "float" -> floats++;
+                case "double" -> doubles++;
+                default -> {
+                    if (i > 1 && isTypeKeyword(peek(1))) {
+                        // a type name we do not support, e.g. _Bool or long double
+                        throw fail();
+                    }
+                    return null;
+                }
+            }
+            i++;
+        }
+        if (token == null || i == 1) {
+            return null;
+        }
+        Kind kind;
+        if (floats + doubles > 0) {
+            if (floats + doubles > 1 || chars + shorts + ints + longs + signeds + unsigneds > 0) {
+                throw fail();
+            }
+            kind = floats > 0 ? Kind.FLOAT : Kind.DOUBLE;
+        } else {
+            if (signeds + unsigneds > 1 || ints > 1 || chars + shorts + (longs > 0 ? 1 : 0) > 1 ||
+                    longs > 2 || (chars > 0 && ints > 0)) {
+                throw fail();
+            }
+            if (chars > 0) {
+                if (signeds + unsigneds == 0) {
+                    // the signedness of plain char is platform-dependent
+                    throw fail();
+                }
+                kind = Kind.SCHAR;
+            } else if (shorts > 0) {
+                kind = Kind.SHORT;
+            } else if (longs == 2) {
+                kind = Kind.LONGLONG;
+            } else if (longs == 1) {
+                kind = Kind.LONG;
+            } else {
+                kind = Kind.INT;
+            }
+            if (unsigneds > 0) {
+                kind = kind.toUnsigned();
+            }
+        }
+        pos += i + 1;
+        return kind;
+    }
+
+    private static boolean isTypeKeyword(String token) {
+        return switch (token) {
+            case "char", "short", "int", "long", "signed", "unsigned", "float", "double" -> true;
+            default -> false;
+        };
+    }
+
+    // literals
+
+    private static Value parseNumber(String token) {
+        String lower = token.toLowerCase();
+        boolean hex = lower.startsWith("0x");
+        boolean floatingPoint = hex ?
+                lower.indexOf('.') >= 0 || lower.indexOf('p') >= 0 :
+                !lower.startsWith("0b") && (lower.indexOf('.') >= 0 || lower.indexOf('e') >= 0);
+        return floatingPoint ?
+                parseFloatingPoint(token, hex) :
+                parseInteger(token);
+    }
+
+    private static Value parseFloatingPoint(String token, boolean hex) {
+        Kind kind = Kind.DOUBLE;
+        String body = token;
+        char last = Character.toLowerCase(token.charAt(token.length() - 1));
+        if (last == 'f') {
+            kind = Kind.FLOAT;
+            body = token.substring(0, token.length() - 1);
+        } else if (last == 'l' || (!hex && !Character.isDigit(last) && last != '.')) {
+            // long double, or some other unsupported suffix
+            throw fail();
+        }
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            // Double.parseDouble accepts some forms which are not valid in C (e.g. "NaN", or a trailing 'd')
+            if (!(Character.isDigit(c) || c == '.' || c == '+' || c == '-' || c == 'e' || c == 'E' ||
+                    (hex && "xXpPaAbBcCdDeEfF".indexOf(c) >= 0))) {
+                throw fail();
+            }
+        }
+        try {
+            double value = kind == Kind.FLOAT ?
+                    Float.parseFloat(body) : Double.parseDouble(body);
+            if (Double.isInfinite(value)) {
+                throw fail();
+            }
+            return Value.ofFloatingPoint(kind, value);
+        } catch (NumberFormatException ex) {
+            throw fail();
+        }
+    }
+
+    private static Value parseInteger(String token) {
+        int end = token.length();
+        while (end > 0 && "uUlL".indexOf(token.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        String suffix = token.substring(end).toLowerCase();
+        String digits = token.substring(0, end);
+        int radix = 10;
+        if (digits.length() > 1 && digits.charAt(0) == '0') {
+            switch (digits.charAt(1)) {
+                case 'x', 'X' -> { radix = 16; digits = digits.substring(2); }
+                case 'b', 'B' -> { radix = 2; digits = digits.substring(2); }
+                default -> { radix = 8; digits = digits.substring(1); }
+            }
+        }
+        if (digits.isEmpty() || digits.charAt(0) == '+' || digits.charAt(0) == '-' ||
+                !token.substring(end).matches("[uU]?(l|L|ll|LL)?|(l|L|ll|LL)[uU]")) {
+            throw fail();
+        }
+        long value;
+        try {
+            value = Long.parseUnsignedLong(digits, radix);
+        } catch (NumberFormatException ex) {
+            throw fail();
+        }
+        boolean unsigned = suffix.contains("u");
+        int longs = suffix.length() - (unsigned ? 1 : 0);
+        Kind start = switch (longs) {
+            case 0 -> Kind.INT;
+            case 1 -> Kind.LONG;
+            default -> Kind.LONGLONG;
+        };
+        // pick the first type in which the value fits (C11, 6.4.4.1)
+        for (Kind kind = start; kind.isInteger(); kind = Kind.values()[kind.ordinal() + 1]) {
+            if (unsigned && kind.signed) {
+                continue;
+            }
+            if (!unsigned && !kind.signed && radix == 10) {
+                // decimal literals without 'u' suffix are always signed
+                continue;
+            }
+            if (fits(value, kind)) {
+                return Value.ofInteger(kind, value);
+            }
+        }
+        throw fail();
+    }
+
+    private static boolean fits(long unsignedValue, Kind kind) {
+        int valueBits = kind.signed ? kind.width - 1 : kind.width;
+        return valueBits == 64 || Long.compareUnsigned(unsignedValue, 1L << valueBits) < 0;
+    }
+
+    private static String parseQuoted(String token, char quote) {
+        if (token.length() < 2 || token.charAt(0) != quote || token.charAt(token.length() - 1) != quote) {
+            // e.g. prefixed literals (L"...", u8"...")
+            throw fail();
+        }
+        StringBuilder buf = new StringBuilder();
+        int i = 1;
+        int end = token.length() - 1;
+        while (i < end) {
+            char c = token.charAt(i++);
+            if (c != '\\') {
+                if (c > 0x7F && quote == '\'') {
+                    // a multi-byte character constant
+                    throw fail();
+                }
+                buf.append(c);
+                continue;
+            }
+            if (i == end) {
+                throw fail();
+            }
+            c = token.charAt(i++);
+            int value = switch (c) {
+                case 'n' -> '\n';
+                case 't' -> '\t';
+                case 'r' -> '\r';
+                case 'a' -> 0x07;
+                case 'b' -> '\b';
+                case 'f' -> '\f';
+                case 'v' -> 0x0B;
+                case '\\', '\'', '"', '?' -> c;
+                case 'x' -> {
+                    int start = i;
+                    while (i < end && Character.digit(token.charAt(i), 16) >= 0) {
+                        i++;
+                    }
+                    if (start == i || i - start > 2) {
+                        throw fail();
+                    }
+                    yield Integer.parseInt(token.substring(start, i), 16);
+                }
+                default -> {
+                    if (c < '0' || c > '7') {
+                        throw fail();
+                    }
+                    int start = i - 1;
+                    while (i < end && i - start < 3 && token.charAt(i) >= '0' && token.charAt(i) <= '7') {
+                        i++;
+                    }
+                    yield Integer.parseInt(token.substring(start, i), 8);
+                }
+            };
+            // values outside the ASCII range depend on the signedness of char, and on the source encoding;
+            // embedded NUL characters would truncate string constants
+            if (value == 0 && quote == '"' || value > 0x7F) {
+                throw fail();
+            }
+            buf.append((char)value);
+        }
+        return buf.toString();
+    }
+
+    // conversions
+
+    private static Value scalar(Value value) {
+        if (value.kind() == Kind.STRING) {
+            throw fail();
+        }
+        return value;
+    }
+
+    private static Value integer(Value value) {
+        if (!value.kind().isInteger()) {
+            throw fail();
+        }
+        return value;
+    }
+
+    private static Value bool(boolean value) {
+        return Value.ofInteger(Kind.INT, value ? 1 : 0);
+    }
+
+    // integer promotions (C11, 6.3.1.1)
+    private static Value promote(Value value) {
+        return value.kind().isInteger() && value.kind().rank() < Kind.INT.rank() ?
+                Value.ofInteger(Kind.INT, value.bits()) : value;
+    }
+
+    // usual arithmetic conversions (C11, 6.3.1.8)
+    private static Kind commonKind(Value left, Value right) {
+        Kind l = promote(left).kind();
+        Kind r = promote(right).kind();
+        if (l == Kind.DOUBLE || r == Kind.DOUBLE) {
+            return Kind.DOUBLE;
+        } else if (l == Kind.FLOAT || r == Kind.FLOAT) {
+            return Kind.FLOAT;
+        } else if (l == r) {
+            return l;
+        } else if (l.signed == r.signed) {
+            return l.rank() > r.rank() ? l : r;
+        }
+        Kind unsigned = l.signed ? r : l;
+        Kind signed = l.signed ? l : r;
+        if (unsigned.rank() >= signed.rank()) {
+            return unsigned;
+        } else if (signed.width > unsigned.width) {
+            return signed;
+        } else {
+            return signed.toUnsigned();
+        }
+    }
+
+    private static Value convert(Value value, Kind kind) {
+        Kind from = value.kind();
+        if (kind.isFloatingPoint()) {
+            double fp;
+            if (from.isFloatingPoint()) {
+                fp = value.fp();
+            } else if ((from.signed || value.bits() >= 0) && Math.abs(value.bits()) <= 1L << 53) {
+                // exactly representable as a double
+                fp = value.bits();
+            } else {
+                throw fail();
+            }
+            if (kind == Kind.FLOAT && Math.abs(fp) > Float.MAX_VALUE && !Double.isInfinite(fp)) {
+                throw fail();
+            }
+            return Value.ofFloatingPoint(kind, fp);
+        } else if (from.isFloatingPoint()) {
+            // the value is truncated toward zero; values out of range yield undefined behavior
+            double fp = value.fp();
+            double limit = Math.scalb(1.0, kind.signed ? kind.width - 1 : kind.width);
+            double min = kind.signed ? -limit - 1.0 : -1.0;
+            if (!(fp > min && fp < limit)) {
+                throw fail();
+            }
+            long bits = fp >= Math.scalb(1.0, 63) ?
+                    (long)(fp - Math.scalb(1.0, 63)) ^ Long.MIN_VALUE :
+                    (long)fp;
+            return Value.ofInteger(kind, bits);
+        } else {
+            return Value.ofInteger(kind, value.bits());
+        }
+    }
+
+    // operators
+
+    private static Value checkRange(Kind kind, long result) {
+        if (kind.width < 64 && Value.normalize(kind, result) != result) {
+            // signed overflow
+            throw fail();
+        }
+        return Value.ofInteger(kind, result);
+    }
+
+    private static long negateExact(long value) {
+        try {
+            return Math.negateExact(value);
+        } catch (ArithmeticException ex) {
+            throw fail();
+        }
+    }
+
+    private static Value arithmetic(String op, Value left, Value right) {
+        Kind kind = commonKind(scalar(left), scalar(right));
+        Value l = convert(left, kind);
+        Value r = convert(right, kind);
+        if (kind.isFloatingPoint()) {
+            double result = switch (op) {
+                case "+" -> l.fp() + r.fp();
+                case "-" -> l.fp() - r.fp();
+                case "*" -> l.fp() * r.fp();
+                case "/" -> {
+                    if (r.fp() == 0) {
+                        throw fail();
+                    }
+                    yield l.fp() / r.fp();
+                }
+                default -> throw fail();
+            };
+            // float operands are exact doubles, so rounding the double result yields the float result
+            Value value = Value.ofFloatingPoint(kind, result);
+            if (Double.isInfinite(value.fp())) {
+                throw fail();
+            }
+            return value;
+        }
+        long a = l.bits();
+        long b = r.bits();
+        if (!kind.signed) {
+            return Value.ofInteger(kind, switch (op) {
+                case "+" -> a + b;
+                case "-" -> a - b;
+                case "*" -> a * b;
+                case "/" -> {
+                    if (b == 0) {
+                        throw fail();
+                    }
+                    yield Long.divideUnsigned(a, b);
+                }
+                default -> {
+                    if (b == 0) {
+                        throw fail();
+                    }
+                    yield Long.remainderUnsigned(a, b);
+                }
+            });
+        }
+        try {
+            return checkRange(kind, switch (op) {
+                case "+" -> Math.addExact(a, b);
+                case "-" -> Math.subtractExact(a, b);
+                case "*" -> Math.multiplyExact(a, b);
+                case "/" -> {
+                    if (b == 0 || (a == Long.MIN_VALUE && b == -1)) {
+                        throw fail();
+                    }
+                    yield a / b;
+                }
+                default -> {
+                    if (b == 0 || (a == Long.MIN_VALUE && b == -1)) {
+                        throw fail();
+                    }
+                    yield a % b;
+                }
+            });
+        } catch (ArithmeticException ex) {
+            throw fail();
+        }
+    }
+
+    private static Value bitwise(String op, Value left, Value right) {
+        Kind kind = commonKind(integer(left), integer(right));
+        long a = convert(left, kind).bits();
+        long b = convert(right, kind).bits();
+        return Value.ofInteger(kind, switch (op) {
+            case "&" -> a & b;
+            case "|" -> a | b;
+            default -> a ^ b;
+        });
+    }
+
+    private static Value shift(String op, Value left, Value right) {
+        Value l = promote(integer(left));
+        Value r = promote(integer(right));
+        Kind kind = l.kind();
+        if (r.bits() < 0 || r.bits() >= kind.width) {
+            // negative shift count, or shift count too large
+            throw fail();
+        }
+        int count = (int)r.bits();
+        long a = l.bits();
+        if (op.equals(">>")) {
+            // signed right shift is implementation-defined; clang uses an arithmetic shift
+            return Value.ofInteger(kind, kind.signed ? a >> count : a >>> count);
+        } else if (kind.signed && (a < 0 || (count > 0 && (a >>> (kind.width - count)) != 0))) {
+            // negative left operand, or set bits shifted out (shifting into the sign bit is allowed, as in clang)
+            throw fail();
+        } else {
+            return Value.ofInteger(kind, a << count);
+        }
+    }
+
+    private static Value compare(String op, Value left, Value right) {
+        Kind kind = commonKind(scalar(left), scalar(right));
+        Value l = convert(left, kind);
+        Value r = convert(right, kind);
+        int cmp;
+        if (kind.isFloatingPoint()) {
+            if (Double.isNaN(l.fp()) || Double.isNaN(r.fp())) {
+                throw fail();
+            }
+            cmp = Double.compare(l.fp(), r.fp());
+            if (l.fp() == r.fp()) {
+                // e.g. 0.0 == -0.0
+                cmp = 0;
+            }
+        } else {
+            cmp = kind.signed ?
+                    Long.compare(l.bits(), r.bits()) :
+                    Long.compareUnsigned(l.bits(), r.bits());
+        }
+        return bool(switch (op) {
+            case "==" -> cmp == 0;
+            case "!=" -> cmp != 0;
+            case "<" -> cmp < 0;
+            case ">" -> cmp > 0;
+            case "<=" -> cmp <= 0;
+            default -> cmp >= 0;
+        });
+    }
+}
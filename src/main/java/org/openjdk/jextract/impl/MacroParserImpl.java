@@ -41,11 +41,19 @@ import org.openjdk.jextract.clang.TranslationUnit;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -55,6 +63,9 @@ class MacroParserImpl implements AutoCloseable {
     private final TreeMaker treeMaker;
     final MacroTable macroTable;
     final Logger logger;
+    // the last definition of the macros whose value has been computed in Java from literals only, which can be
+    // referred to by other macros (see MacroTable::evaluateInJava)
+    private final Map<String, MacroEvaluator.Value> literalMacros = new HashMap<>();
 
     private MacroParserImpl(ClangReparser reparser, TreeMaker treeMaker, Logger logger) {
         this.reparser = reparser;
@@ -63,10 +74,16 @@ class MacroParserImpl implements AutoCloseable {
         this.logger = logger;
     }
 
-    static MacroParserImpl make(TreeMaker treeMaker, Logger logger, TranslationUnit tu, Collection<String> args) {
+    /**
+     * Creates a macro parser for the given translation unit. If {@code precompiled} is not {@code null}, it must
+     * point to a file containing the saved translation unit (e.g. a parse cache entry), which is then used as a
+     * precompiled header, instead of saving the translation unit again.
+     */
+    static MacroParserImpl make(TreeMaker treeMaker, Logger logger, TranslationUnit tu, Path precompiled,
+                                Collection<String> args) {
         ClangReparser reparser;
         try {
-            reparser = new ClangReparser(tu, args, logger);
+            reparser = new ClangReparser(tu, precompiled, args, logger);
         } catch (IOException | Index.ParsingFailedException ex) {
             throw new RuntimeException(ex);
         }
@@ -76,33 +93,30 @@ class MacroParserImpl implements AutoCloseable {
 
     /**
      * This method attempts to evaluate the macro. Evaluation occurs in two steps: first, an attempt is made
-     * to see if the macro corresponds to a simple numeric constant. If so, the constant is parsed in Java directly.
-     * If that is not possible (e.g. because the macro refers to other macro, or has a more complex grammar), fall
-     * back to use clang evaluation support.
+     * to evaluate the macro in Java directly (see {@link MacroEvaluator}). This succeeds for literals, and for
+     * constant expressions whose operands are all literals. Otherwise (e.g. because the macro refers to another
+     * macro, or to an enum constant, or has a more complex grammar), the macro is added to the macro table, and
+     * evaluated at the end of the translation unit (see {@link MacroTable}), as that is where clang expands the
+     * macros it refers to.
      */
     Optional<Declaration.Constant> parseConstant(Cursor cursor, String name, String[] tokens) {
+        // a redefinition replaces any previous definition
+        literalMacros.remove(name);
         if (cursor.isMacroFunctionLike()) {
+            macroTable.removeMacro(name);
             return Optional.empty();
-        } else if (tokens.length == 2) {
-            //check for fast path
-            Integer num = toNumber(tokens[1]);
-            if (num != null) {
-                return Optional.of(treeMaker.createMacro(TreeMaker.CursorPosition.of(cursor), name, Type.primitive(Type.Primitive.Kind.Int), (long)num));
-            }
+        }
+        Optional<MacroEvaluator.Value> value = MacroEvaluator.evaluate(tokens, _ -> Optional.empty());
+        if (value.isPresent()) {
+            literalMacros.put(name, value.get());
+            macroTable.removeMacro(name);
+            return Optional.of(treeMaker.createMacro(TreeMaker.CursorPosition.of(cursor), name,
+                    value.get().type(), value.get().constantValue()));
         }
         macroTable.enterMacro(name, tokens, TreeMaker.CursorPosition.of(cursor));
         return Optional.empty();
     }
 
-    private Integer toNumber(String str) {
-        try {
-            // Integer.decode supports '#' hex literals which is not valid in C.
-            return str.length() > 0 && str.charAt(0) != '#'? Integer.decode(str) : null;
-        } catch (NumberFormatException nfe) {
-            return null;
-        }
-    }
-
     /**
      * This class allows client to reparse a snippet of code against a given set of include files.
      * For performance reasons, the set of includes (which comes from the jextract parser) is compiled
@@ -114,10 +128,12 @@ class MacroParserImpl implements AutoCloseable {
         final TranslationUnit macroUnit;
         final Logger logger;
 
-        public ClangReparser(TranslationUnit tu, Collection<String> args, Logger logger) throws IOException, Index.ParsingFailedException {
-            Path precompiled = Files.createTempFile("jextract$", ".pch");
-            precompiled.toFile().deleteOnExit();
-            tu.save(precompiled);
+        public ClangReparser(TranslationUnit tu, Path precompiled, Collection<String> args, Logger logger) throws IOException, Index.ParsingFailedException {
+            if (precompiled == null) {
+                precompiled = Files.createTempFile("jextract$", ".pch");
+                precompiled.toFile().deleteOnExit();
+                tu.save(precompiled);
+            }
             this.logger = logger;
             String[] patchedArgs = Stream.concat(
                 Stream.of(
@@ -154,11 +170,19 @@ class MacroParserImpl implements AutoCloseable {
      *
      * The reparsing process goes as follows:
      * 1. all unparsed macros are added to the table in the UNPARSED state.
-     * 2. a snippet for all macros in the UNPARSED state is compiled and the table state is updated
-     * 3. a recovery snippet for all macros in the FAILURE state is compiled and the table state is updated again
-     * 4. we repeat from (2) until no further progress is made.
+     * 2. the macros are sorted so that each macro comes after the macros it refers to, and an attempt is made to
+     *    evaluate them in Java, in that order (this resolves forward references between macros). Since #undef
+     *    directives are not visible as cursors, clang is then asked which of the macros involved in these values
+     *    are no longer defined; the values depending on such macros are discarded, and the corresponding macros
+     *    are left UNPARSED.
+     * 3. a snippet for all the remaining macros in the UNPARSED state is compiled and the table state is updated
+     * 4. a recovery snippet for all macros in the FAILURE state is compiled and the table state is updated again
      * 5. we return a list of macro which are in the SUCCESS state.
      *
+     * Each snippet is compiled at most once. If some macros in a snippet are not found in the compiled snippet
+     * (e.g. because a preceding macro expanding to an opening brace disrupted parsing), only those macros are
+     * compiled again, by splitting them in two halves, until the offending macros are isolated.
+     *
      * State transitions in the table are as follows:
      * - an UNPARSED macro can go to either SUCCESS, to FAILURE or be removed (if not even a type can be inferred)
      * - a FAILURE macro can go to either SUCCESS (if recovery step succeds) or be removed
@@ -180,7 +204,7 @@ class MacroParserImpl implements AutoCloseable {
             }
 
             String mangledName() {
-                return "jextract$macro$" + name;
+                return MacroTable.mangledName(name);
             }
 
             Entry success(Type type, Object value) {
@@ -289,26 +313,159 @@ class MacroParserImpl implements AutoCloseable {
             }
         }
 
+        static String mangledName(String name) {
+            return "jextract$macro$" + name;
+        }
+
         void enterMacro(String name, String[] tokens, Position position) {
             Unparsed unparsed = new Unparsed(name, tokens, position);
             macrosByMangledName.put(unparsed.mangledName(), unparsed);
         }
 
+        void removeMacro(String name) {
+            macrosByMangledName.remove(mangledName(name));
+        }
+
         public List<Declaration.Constant> reparseConstants() {
-            int last = -1;
-            while (macrosByMangledName.size() > 0 && last != macrosByMangledName.size()) {
-                last = macrosByMangledName.size();
-                // step 1 - try parsing macros as var declarations
-                reparseMacros(false);
-                // step 2 - retry failed parsed macros as pointers
-                reparseMacros(true);
-            }
+            // step 1 - evaluate macros in Java, in dependency order
+            List<Entry> unparsed = evaluateInJava(sortByDependencies());
+            // step 2 - try parsing the remaining macros as var declarations
+            reparseBatch(unparsed, false);
+            // step 3 - retry failed parsed macros as pointers
+            reparseBatch(macrosByMangledName.values().stream()
+                    .filter(Entry::isRecoverableFailure)
+                    .toList(), true);
             return macrosByMangledName.values().stream()
                     .filter(Entry::isSuccess)
                     .map(e -> ((Success) e).constant())
                     .collect(Collectors.toList());
         }
 
+        /*
+         * Returns the entries in the table, so that each entry comes after the entries for the macros it
+         * refers to. Entries in a reference cycle are returned in an unspecified order.
+         */
+        List<Entry> sortByDependencies() {
+            Map<String, Entry> entriesByName = new HashMap<>();
+            macrosByMangledName.values().forEach(e -> entriesByName.put(e.name, e));
+            Set<Entry> visited = new HashSet<>();
+            List<Entry> sorted = new ArrayList<>(entriesByName.size());
+            for (Entry root : macrosByMangledName.values()) {
+                if (!visited.add(root)) {
+                    continue;
+                }
+                // iterative depth-first visit, as macro chains can be arbitrarily long
+                Deque<Entry> stack = new ArrayDeque<>();
+                Deque<Integer> nextToken = new ArrayDeque<>();
+                stack.push(root);
+                nextToken.push(1);
+                while (!stack.isEmpty()) {
+                    Entry entry = stack.peek();
+                    int index = nextToken.pop();
+                    if (index < entry.tokens.length) {
+                        nextToken.push(index + 1);
+                        Entry dep = entriesByName.get(entry.tokens[index]);
+                        if (dep != null && visited.add(dep)) {
+                            stack.push(dep);
+                            nextToken.push(1);
+                        }
+                    } else {
+                        sorted.add(stack.pop());
+                    }
+                }
+            }
+            return sorted;
+        }
+
+        /*
+         * Attempts to evaluate the given entries in Java, in order, and returns the entries which could not
+         * be evaluated. An entry can refer to the macros in literalMacros, and to the entries that precede it.
+         * A value is only kept if the macro, and all the macros its value depends on, are still defined at the
+         * end of the translation unit; otherwise, the entry is returned, so that it is evaluated by clang.
+         */
+        List<Entry> evaluateInJava(List<Entry> entries) {
+            Map<String, MacroEvaluator.Value> values = new HashMap<>();
+            // the macros each value depends on, including the evaluated macro itself
+            Map<String, Set<String>> dependencies = new HashMap<>();
+            for (Entry entry : entries) {
+                Set<String> deps = new HashSet<>();
+                deps.add(entry.name);
+                Optional<MacroEvaluator.Value> value = MacroEvaluator.evaluate(entry.tokens, n -> {
+                    MacroEvaluator.Value v = values.containsKey(n) ? values.get(n) : literalMacros.get(n);
+                    if (v != null) {
+                        deps.add(n);
+                    }
+                    return Optional.ofNullable(v);
+                });
+                if (value.isPresent()) {
+                    values.put(entry.name, value.get());
+                    dependencies.put(entry.name, deps);
+                }
+            }
+            Set<String> invalid = values.isEmpty() ?
+                    new HashSet<>() :
+                    undefinedMacros(dependencies.values().stream()
+                            .flatMap(Set::stream)
+                            .collect(Collectors.toCollection(TreeSet::new)));
+            List<Entry> unparsed = new ArrayList<>();
+            for (Entry entry : entries) {
+                MacroEvaluator.Value value = values.get(entry.name);
+                if (value != null && Collections.disjoint(dependencies.get(entry.name), invalid)) {
+                    entry.success(value.type(), value.constantValue()).update();
+                } else {
+                    if (value != null) {
+                        // entries are sorted, so the values depending on this one are discarded as well
+                        invalid.add(entry.name);
+                    }
+                    unparsed.add(entry);
+                }
+            }
+            return unparsed;
+        }
+
+        /*
+         * Returns the macros, among the given ones, which are not defined at the end of the translation unit
+         * (e.g. because of an #undef directive).
+         */
+        Set<String> undefinedMacros(Collection<String> names) {
+            StringBuilder buf = new StringBuilder();
+            names.forEach(n -> buf.append("#ifndef ").append(n).append("\n")
+                    .append("int jextract$undef$").append(n).append(";\n")
+                    .append("#endif\n"));
+            Set<String> undefined = new HashSet<>();
+            reparser.reparse(buf.toString()).forEach(c -> {
+                if (c.kind() == CursorKind.VarDecl &&
+                        c.spelling().startsWith("jextract$undef$")) {
+                    undefined.add(c.spelling().substring("jextract$undef$".length()));
+                }
+            });
+            return undefined;
+        }
+
+        /*
+         * Compiles a snippet for the given entries. Entries which could not be found in the compiled snippet
+         * are compiled again, in two separate halves, so that a macro disrupting the parsing of other macros
+         * is eventually isolated. A single entry which cannot be found is left in its current state.
+         */
+        void reparseBatch(List<Entry> batch, boolean recovery) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            reparseMacros(batch, recovery);
+            List<Entry> missing = batch.stream()
+                    .filter(e -> macrosByMangledName.get(e.mangledName()) == e)
+                    .toList();
+            if (missing.size() == 1 && batch.size() == 1) {
+                return;
+            } else if (missing.size() == batch.size()) {
+                int half = missing.size() / 2;
+                reparseBatch(missing.subList(0, half), recovery);
+                reparseBatch(missing.subList(half, missing.size()), recovery);
+            } else {
+                reparseBatch(missing, recovery);
+            }
+        }
+
         void updateTable(TreeMaker treeMaker, Cursor decl) {
             String mangledName = decl.spelling();
             Entry entry = macrosByMangledName.get(mangledName);
@@ -336,12 +493,13 @@ class MacroParserImpl implements AutoCloseable {
             }
         }
 
-        void reparseMacros(boolean recovery) {
-            String snippet = macroDecl(recovery);
+        void reparseMacros(List<Entry> entries, boolean recovery) {
+            String snippet = macroDecl(entries, recovery);
             // note: cursors returned during reparsing are not comparable with existing ones.
             // Because of that, here we create a brand new tree maker, which means pointers to already declared types
-            // (e.g. structs, unions, enums) will be downgraded to void*.
-            TreeMaker treeMaker = new TreeMaker();
+            // (e.g. structs, unions, enums) will be downgraded to void*. Declarations created by this tree maker
+            // are only used to compute the types of the macros, so they do not need declaration strings.
+            TreeMaker treeMaker = new TreeMaker(_ -> false);
             reparser.reparse(snippet).forEach(c -> {
                 if (c.kind() == CursorKind.VarDecl &&
                         c.spelling().contains("jextract$")) {
@@ -350,24 +508,21 @@ class MacroParserImpl implements AutoCloseable {
             });
         }
 
-        String macroDecl(boolean recovery) {
+        String macroDecl(List<Entry> entries, boolean recovery) {
             StringBuilder buf = new StringBuilder();
             if (recovery) {
                 buf.append("#include <stdint.h>\n");
             }
-            macrosByMangledName.values().stream()
-                    .filter(e -> !e.isSuccess()) // skip macros that already have passed
-                    .filter(recovery ? Entry::isRecoverableFailure : Entry::isUnparsed)
-                    .forEach(e -> {
-                        buf.append("__auto_type ")
-                                .append(e.mangledName())
-                                .append(" = ");
-                        if (recovery) {
-                            buf.append("(uintptr_t)");
-                        }
-                        buf.append(e.name)
-                                .append(";\n");
-                    });
+            entries.forEach(e -> {
+                buf.append("__auto_type ")
+                        .append(e.mangledName())
+                        .append(" = ");
+                if (recovery) {
+                    buf.append("(uintptr_t)");
+                }
+                buf.append(e.name)
+                        .append(";\n");
+            });
             return buf.toString();
         }
     }
@@ -24,7 +24,9 @@ package org.openjdk.jextract.impl;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public final class Options {
 
@@ -41,10 +43,33 @@ public final class Options {
     // name of the shared class
     public String sharedClassName;
     public final IncludeHelper includeHelper;
+    // number of threads used to parse header files (1 means all headers are parsed together)
+    public final int parseThreads;
+    // parse cache directory (null if parsed header files should not be cached)
+    public final String parseCacheDir;
+    // whether macros should be parsed (to generate constants)
+    public final boolean parseMacros;
+    // whether javadoc comments showing the C declarations should be generated
+    public final boolean docComments;
+    // whether unchanged output files should be left alone (using a manifest in the output directory)
+    public final boolean incremental;
+    // whether functions with the same descriptor should share the same (address-less) downcall handle
+    public final boolean sharedDowncallHandles;
+    // whether each header class should keep its handles in a lazily populated table, rather than in holder classes
+    public final boolean handleTables;
+    // names of the functions whose downcall handles should be linked as critical
+    public final Set<String> criticalFunctions;
+    // shapes of the variadic calls for which typed wrappers should be generated
+    public final List<VariadicCall> variadicCalls;
+    // whether independent source files (e.g. struct classes) should be generated in a fork-join pool
+    public final boolean parallelCodegen;
 
     private Options(List<String> clangArgs, List<Library> libraries, boolean useSystemLoadLibrary,
                     String targetPackage, String outputDir, String sharedClassName,
-                    IncludeHelper includeHelper) {
+                    IncludeHelper includeHelper, int parseThreads, String parseCacheDir, boolean parseMacros,
+                    boolean docComments, boolean incremental, boolean sharedDowncallHandles,
+                    boolean handleTables, Set<String> criticalFunctions, List<VariadicCall> variadicCalls,
+                    boolean parallelCodegen) {
         this.clangArgs = clangArgs;
         this.libraries = libraries;
         this.useSystemLoadLibrary = useSystemLoadLibrary;
@@ -52,6 +77,16 @@ public final class Options {
         this.outputDir = outputDir;
         this.includeHelper = includeHelper;
         this.sharedClassName = sharedClassName;
+        this.parseThreads = parseThreads;
+        this.parseCacheDir = parseCacheDir;
+        this.parseMacros = parseMacros;
+        this.docComments = docComments;
+        this.incremental = incremental;
+        this.sharedDowncallHandles = sharedDowncallHandles;
+        this.handleTables = handleTables;
+        this.criticalFunctions = criticalFunctions;
+        this.variadicCalls = variadicCalls;
+        this.parallelCodegen = parallelCodegen;
     }
 
     public static Builder builder() {
@@ -66,6 +101,16 @@ public final class Options {
         private String outputDir;
         private String sharedClassName;
         private final IncludeHelper includeHelper = new IncludeHelper();
+        private int parseThreads;
+        private String parseCacheDir;
+        private boolean parseMacros;
+        private boolean docComments;
+        private boolean incremental;
+        private boolean sharedDowncallHandles;
+        private boolean handleTables;
+        private final Set<String> criticalFunctions = new HashSet<>();
+        private final List<VariadicCall> variadicCalls = new ArrayList<>();
+        private boolean parallelCodegen;
 
         public Builder() {
             this.clangArgs = new ArrayList<>();
@@ -74,13 +119,29 @@ public final class Options {
             this.outputDir = ".";
             this.useSystemLoadLibrary = false;
             this.sharedClassName = null;
+            this.parseThreads = 1;
+            this.parseCacheDir = null;
+            this.parseMacros = true;
+            this.docComments = true;
+            this.incremental = false;
+            this.sharedDowncallHandles = false;
+            this.handleTables = false;
+            this.parallelCodegen = Boolean.parseBoolean(System.getProperty("jextract.codegen.parallel", "true"));
         }
 
         public Options build() {
+            // if include filters are used, constants are only generated if explicitly included
+            boolean constantsIncluded = !includeHelper.isEnabled() ||
+                    includeHelper.hasSymbols(IncludeHelper.IncludeKind.CONSTANT);
             return new Options(
                     Collections.unmodifiableList(clangArgs),
                     Collections.unmodifiableList(libraries),
-                    useSystemLoadLibrary, targetPackage, outputDir, sharedClassName, includeHelper
+                    useSystemLoadLibrary, targetPackage, outputDir, sharedClassName, includeHelper,
+                    parseThreads, parseCacheDir, parseMacros && constantsIncluded,
+                    docComments, incremental, sharedDowncallHandles, handleTables,
+                    Collections.unmodifiableSet(criticalFunctions),
+                    Collections.unmodifiableList(variadicCalls),
+                    parallelCodegen
             );
         }
 
@@ -112,6 +173,46 @@ public final class Options {
             this.sharedClassName = file;
         }
 
+        public void setParseThreads(int parseThreads) {
+            this.parseThreads = parseThreads;
+        }
+
+        public void setParseCacheDir(String parseCacheDir) {
+            this.parseCacheDir = parseCacheDir;
+        }
+
+        public void setParseMacros(boolean parseMacros) {
+            this.parseMacros = parseMacros;
+        }
+
+        public void setDocComments(boolean docComments) {
+            this.docComments = docComments;
+        }
+
+        public void setIncremental(boolean incremental) {
+            this.incremental = incremental;
+        }
+
+        public void setSharedDowncallHandles(boolean sharedDowncallHandles) {
+            this.sharedDowncallHandles = sharedDowncallHandles;
+        }
+
+        public void setHandleTables(boolean handleTables) {
+            this.handleTables = handleTables;
+        }
+
+        public void setParallelCodegen(boolean parallelCodegen) {
+            this.parallelCodegen = parallelCodegen;
+        }
+
+        public void addCriticalFunction(String functionName) {
+            criticalFunctions.add(functionName);
+        }
+
+        public void addVariadicCall(VariadicCall variadicCall) {
+            variadicCalls.add(variadicCall);
+        }
+
         public void addIncludeSymbol(IncludeHelper.IncludeKind kind, String symbolName) {
             includeHelper.addSymbol(kind, symbolName);
         }
@@ -146,4 +247,68 @@ public final class Options {
             return libSpec().replace("\\", "\\\\"); // double up slashes
         }
     }
+
+    /**
+     * A record describing the shape of a call to a variadic function.
+     *
+     * @param function the name of the variadic function
+     * @param argTypes the C types of the variadic arguments. Each type is either {@code int}, {@code long},
+     *                 {@code long long}, {@code double}, or a pointer type (e.g. {@code void*}).
+     */
+    public record VariadicCall(String function, List<String> argTypes) {
+
+        private static final Set<String> ARG_TYPES = Set.of("int", "long", "long long", "double");
+
+        /**
+         * Parses a variadic call shape, such as {@code printf(int,double)}.
+         */
+        public static VariadicCall parse(String optionString) {
+            int open = optionString.indexOf('(');
+            if (open <= 0 || !optionString.endsWith(")")) {
+                throw new IllegalArgumentException();
+            }
+            String function = optionString.substring(0, open).strip();
+            String args = optionString.substring(open + 1, optionString.length() - 1).strip();
+            List<String> argTypes = new ArrayList<>();
+            if (!args.isEmpty()) {
+                for (String arg : args.split(",", -1)) {
+                    String argType = normalizeArgType(arg);
+                    if (!ARG_TYPES.contains(argType) && !argType.endsWith("*")) {
+                        throw new IllegalArgumentException();
+                    }
+                    argTypes.add(argType);
+                }
+            }
+            if (function.isEmpty()) {
+                throw new IllegalArgumentException();
+            }
+            return new VariadicCall(function, List.copyOf(argTypes));
+        }
+
+        /**
+         * Normalizes whitespace (e.g. "long  long" or "char *"), and drops type qualifiers, as they do not
+         * affect how arguments are passed (e.g. "const char*" becomes "char*").
+         */
+        private static String normalizeArgType(String argType) {
+            List<String> words = new ArrayList<>();
+            StringBuilder pointers = new StringBuilder();
+            for (String word : argType.replace("*", " * ").strip().split("\\s+")) {
+                switch (word) {
+                    case "const", "volatile" -> { }
+                    case "*" -> pointers.append('*');
+                    default -> {
+                        if (!pointers.isEmpty()) {
+                            // e.g. "char * int"
+                            throw new IllegalArgumentException();
+                        }
+                        words.add(word);
+                    }
+                }
+            }
+            if (words.isEmpty()) {
+                throw new IllegalArgumentException();
+            }
+            return String.join(" ", words) + pointers;
+        }
+    }
 }
@@ -32,7 +32,11 @@ import org.openjdk.jextract.impl.DeclarationImpl.NestedDeclarations;
 import org.openjdk.jextract.impl.DeclarationImpl.Skip;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /*
  * Scan a header file and generate Java source items for entities defined in that header
@@ -41,29 +45,51 @@ import java.util.List;
  */
 public class OutputFactory implements Declaration.Visitor<Void, Declaration> {
     protected final ToplevelBuilder toplevelBuilder;
-    protected Builder currentBuilder;
+    // the struct being generated, or null
+    private StructRecorder currentStruct;
+    // scoped declarations that have already been generated
+    private final Set<Declaration> generated = Collections.newSetFromMap(new IdentityHashMap<>());
 
     public static JavaSourceFile[] generateWrapped(Declaration.Scoped decl,
                                                    String pkgName,
                                                    List<Options.Library> libs,
                                                    boolean useSystemLoadLibrary,
                                                    String sharedClassName) {
+        Options.Builder builder = Options.builder();
+        libs.forEach(builder::addLibrary);
+        builder.setUseSystemLoadLibrary(useSystemLoadLibrary);
+        builder.setSharedClassName(sharedClassName);
+        List<JavaSourceFile> files = new ArrayList<>();
+        generateWrapped(decl, pkgName, builder.build(), files::add);
+        return files.toArray(JavaSourceFile[]::new);
+    }
+
+    /**
+     * Generates the source files for the given toplevel declaration. Each source file is passed to the given
+     * sink as soon as it is complete, so that clients can write source files out while others are still
+     * being generated.
+     */
+    public static void generateWrapped(Declaration.Scoped decl,
+                                       String pkgName,
+                                       Options options,
+                                       Consumer<JavaSourceFile> sink) {
         String clsName = JavaName.getOrThrow(decl);
-        ToplevelBuilder toplevelBuilder = new ToplevelBuilder(pkgName, clsName,
-                libs, useSystemLoadLibrary, sharedClassName);
-        return new OutputFactory(toplevelBuilder).generate(decl);
+        ToplevelBuilder toplevelBuilder = new ToplevelBuilder(pkgName, clsName, options, sink);
+        new OutputFactory(toplevelBuilder).generate(decl);
     }
 
     private OutputFactory(ToplevelBuilder toplevelBuilder) {
         this.toplevelBuilder = toplevelBuilder;
-        this.currentBuilder = toplevelBuilder;
     }
 
-    JavaSourceFile[] generate(Declaration.Scoped decl) {
+    private Builder currentBuilder() {
+        return currentStruct != null ? currentStruct : toplevelBuilder;
+    }
+
+    void generate(Declaration.Scoped decl) {
         //generate all decls
         decl.members().forEach(this::generateDecl);
-        List<JavaSourceFile> files = new ArrayList<>(toplevelBuilder.toFiles());
-        return files.toArray(JavaSourceFile[]::new);
+        toplevelBuilder.end();
     }
 
     private void generateDecl(Declaration tree) {
@@ -82,31 +108,34 @@ public class OutputFactory implements Declaration.Visitor<Void, Declaration> {
 
     @Override
     public Void visitScoped(Declaration.Scoped d, Declaration parent) {
-        if (Skip.isPresent(d)) {
+        if (Skip.isPresent(d) || !generated.add(d)) { // do not generate twice
             return null;
         }
 
-        Skip.with(d); // do not generate twice
         boolean isStructKind = Utils.isStructOrUnion(d);
-        Builder prevBuilder = null;
-        StructBuilder structBuilder = null;
+        StructRecorder prevStruct = currentStruct;
         if (isStructKind) {
-            prevBuilder = currentBuilder;
-            currentBuilder = structBuilder = currentBuilder.addStruct(d);
+            currentStruct = prevStruct == null ?
+                    new StructRecorder(toplevelBuilder, d) :
+                    prevStruct.addNestedStruct(d);
         }
         try {
             d.members().forEach(fieldTree -> fieldTree.accept(this, d));
         } finally {
             if (isStructKind) {
-                structBuilder.end();
-                currentBuilder = prevBuilder;
+                currentStruct.end();
+                if (prevStruct == null) {
+                    // the source file of a toplevel struct can now be generated
+                    toplevelBuilder.addFile(currentStruct::replay);
+                }
+                currentStruct = prevStruct;
             }
         }
         return null;
     }
 
     private void generateFunctionalInterface(Declaration parentDecl, Type.Function func) {
-        currentBuilder.addFunctionalInterface(parentDecl, func);
+        currentBuilder().addFunctionalInterface(parentDecl, func);
     }
 
     @Override
@@ -188,10 +217,57 @@ public class OutputFactory implements Declaration.Visitor<Void, Declaration> {
             generateFunctionalInterface(tree, func);
         }
 
-        currentBuilder.addVar(tree);
+        currentBuilder().addVar(tree);
         return null;
     }
 
+    /**
+     * Records the calls made on the builder of a toplevel struct (and on the builders of its nested structs),
+     * so that the source file of the struct can be generated later, in a different thread. Calls are replayed
+     * in the order in which they have been recorded, so the generated source does not change. Other
+     * declarations that are found while visiting the struct (e.g. the constants of a nested enum) are still
+     * added to the toplevel builder as they are visited.
+     */
+    private static final class StructRecorder implements Builder {
+        // shared by the recorders of a toplevel struct and of its nested structs
+        private final List<Runnable> calls;
+        // set when the calls are replayed
+        private StructBuilder builder;
+
+        StructRecorder(ToplevelBuilder toplevelBuilder, Declaration.Scoped tree) {
+            this.calls = new ArrayList<>();
+            calls.add(() -> builder = toplevelBuilder.addStruct(tree));
+        }
+
+        private StructRecorder(StructRecorder parent, Declaration.Scoped tree) {
+            this.calls = parent.calls;
+            calls.add(() -> builder = parent.builder.addStruct(tree));
+        }
+
+        StructRecorder addNestedStruct(Declaration.Scoped tree) {
+            return new StructRecorder(this, tree);
+        }
+
+        @Override
+        public void addVar(Declaration.Variable varTree) {
+            calls.add(() -> builder.addVar(varTree));
+        }
+
+        @Override
+        public void addFunctionalInterface(Declaration parentDecl, Type.Function funcType) {
+            calls.add(() -> builder.addFunctionalInterface(parentDecl, funcType));
+        }
+
+        void end() {
+            calls.add(() -> builder.end());
+        }
+
+        JavaSourceFile replay() {
+            calls.forEach(Runnable::run);
+            return builder.sourceFileBuilder().toFile();
+        }
+    }
+
     interface Builder {
 
         default void addVar(Declaration.Variable varTree) {
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.openjdk.jextract.impl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A manifest of the files generated by a jextract run, which is stored in the output directory. The manifest
+ * records a hash of the tool inputs (e.g. the command line arguments), the files that have been included
+ * when parsing the header files, along with a hash of their contents, and the generated files, along with
+ * a hash of their contents.
+ * <p>
+ * A manifest is used to avoid touching the output directory when the inputs have not changed. Moreover,
+ * when some input has changed, only the generated files whose contents have changed are written; generated
+ * files that are no longer generated are deleted. Changed files are staged (see {@link StagedOutput}), and
+ * the output directory is only modified when the manifest is stored.
+ */
+public final class OutputManifest {
+
+    public static final String FILE_NAME = ".jextract.manifest";
+
+    // bump this if the layout of the manifest changes
+    private static final String MANIFEST_VERSION = "1";
+
+    private final Path dir;
+    private final String inputs;
+    // the contents of the existing manifest, if any
+    private final String previousInputs;
+    private final List<Entry> previousDeps;
+    private final List<Entry> previousOutputs;
+    // generated files, keyed by path relative to the output directory
+    private final Map<String, String> outputs = new TreeMap<>();
+    // generated files whose contents have changed
+    private final StagedOutput staged = new StagedOutput();
+
+    // a file path (relative to the output directory, for outputs) and the hash of its contents
+    private record Entry(String hash, String path) { }
+
+    private OutputManifest(Path dir, String inputs, String previousInputs,
+                           List<Entry> previousDeps, List<Entry> previousOutputs) {
+        this.dir = dir;
+        this.inputs = inputs;
+        this.previousInputs = previousInputs;
+        this.previousDeps = previousDeps;
+        this.previousOutputs = previousOutputs;
+    }
+
+    /**
+     * Loads the manifest in the given output directory, if any.
+     * @param dir the output directory.
+     * @param inputs the inputs of the current run. Files that are included by the parsed header files do
+     *               not have to be listed here.
+     */
+    public static OutputManifest load(Path dir, Collection<String> inputs) {
+        StringBuilder buf = new StringBuilder();
+        buf.append(MANIFEST_VERSION).append('\0');
+        inputs.forEach(input -> buf.append(input).append('\0'));
+        String inputsHash = ParseCache.hash(buf.toString().getBytes(StandardCharsets.UTF_8));
+
+        String previousInputs = null;
+        List<Entry> deps = new ArrayList<>();
+        List<Entry> outputs = new ArrayList<>();
+        Path manifestFile = dir.resolve(FILE_NAME);
+        try {
+            if (Files.isRegularFile(manifestFile)) {
+                for (String line : Files.readAllLines(manifestFile)) {
+                    // e.g. "dep <hash> <path>"
+                    String[] parts = line.split(" ", 3);
+                    switch (parts[0]) {
+                        case "inputs" -> previousInputs = parts[1];
+                        case "dep" -> deps.add(new Entry(parts[1], parts[2]));
+                        case "out" -> outputs.add(new Entry(parts[1], parts[2]));
+                        default -> throw new IllegalStateException("Unexpected manifest entry: " + line);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            // treat a malformed manifest as a missing one, it will be overwritten
+            previousInputs = null;
+            deps.clear();
+            outputs.clear();
+        }
+        return new OutputManifest(dir, inputsHash, previousInputs, deps, outputs);
+    }
+
+    /**
+     * {@return {@code true} if neither the inputs nor the included files have changed since the manifest has
+     * been stored, and if all the generated files are still present, with the same contents}
+     */
+    public boolean isUpToDate() {
+        if (!inputs.equals(previousInputs) || previousOutputs.isEmpty()) {
+            return false;
+        }
+        try {
+            for (Entry dep : previousDeps) {
+                if (!hasContents(Path.of(dep.path()), dep.hash())) {
+                    return false;
+                }
+            }
+            for (Entry output : previousOutputs) {
+                if (!hasContents(dir.resolve(output.path()), output.hash())) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    private static boolean hasContents(Path file, String hash) throws IOException {
+        return Files.isRegularFile(file) && ParseCache.hash(Files.readAllBytes(file)).equals(hash);
+    }
+
+    /**
+     * Stages a generated file, unless a file with the same contents already exists.
+     * @param path the path of the file, relative to the output directory.
+     * @param contents the contents of the file.
+     */
+    public void write(String path, byte[] contents) throws IOException {
+        outputs.put(path, ParseCache.hash(contents));
+        Path file = dir.resolve(path);
+        if (Files.isRegularFile(file) && Files.size(file) == contents.length &&
+                Arrays.equals(Files.readAllBytes(file), contents)) {
+            // leave the file (and its modification time) alone
+            return;
+        }
+        staged.write(file, contents);
+    }
+
+    /**
+     * Moves the staged files in place, deletes the generated files that have not been written by this run,
+     * and stores the manifest.
+     * @param includedFiles the files included by the parsed header files, along with a hash of the contents
+     *                      that have been parsed.
+     */
+    public void store(Map<Path, String> includedFiles) throws IOException {
+        List<Path> staleFiles = previousOutputs.stream()
+                .filter(output -> !outputs.containsKey(output.path()))
+                .map(output -> dir.resolve(output.path()))
+                .toList();
+        if (!staged.isEmpty() || !staleFiles.isEmpty()) {
+            // the existing manifest is deleted before the output directory is modified, so that an interrupted
+            // run can never leave a manifest that does not match the contents of the output directory
+            Files.deleteIfExists(dir.resolve(FILE_NAME));
+            staged.commit();
+            for (Path staleFile : staleFiles) {
+                Files.deleteIfExists(staleFile);
+            }
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add("inputs " + inputs);
+        // hashes of the parsed contents, so that a file changed since then is detected by the next run
+        new TreeMap<>(includedFiles).forEach((dep, hash) -> lines.add("dep " + hash + " " + dep));
+        outputs.forEach((path, hash) -> lines.add("out " + hash + " " + path));
+        Path manifestFile = dir.resolve(FILE_NAME);
+        Path tmpFile = Files.createTempFile(dir, FILE_NAME, ".tmp");
+        try {
+            Files.write(tmpFile, lines);
+            StagedOutput.move(tmpFile, manifestFile);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+    }
+
+    /**
+     * Deletes the staged files, leaving the output directory (and the existing manifest) untouched.
+     */
+    public void discard() {
+        staged.discard();
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.openjdk.jextract.impl;
+
+import org.openjdk.jextract.clang.LibClang;
+import org.openjdk.jextract.clang.TranslationUnit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * An on-disk cache of parsed translation units. Each entry consists of an AST file (as saved by
+ * {@link TranslationUnit#save(Path)}) and of a dependency file. Entries are keyed by a hash of the parsed
+ * source, of the clang arguments (which include the include search paths), of the parsing options and of
+ * the libclang version. The dependency file lists all the files included by the translation unit, along
+ * with a hash of their contents; an entry is only used if none of these files has changed since the entry
+ * was created. The dependency file also records the diagnostics reported by clang when the translation unit
+ * was parsed (as they are not reported again when the AST file is loaded), and a hash of the AST file, so
+ * that an AST file is never paired with the dependency file of another entry with the same key.
+ */
+class ParseCache {
+
+    // bump this if the layout of the cache entries changes
+    private static final String CACHE_VERSION = "2";
+
+    private final Path dir;
+    // whether translation units are parsed with a detailed preprocessing record
+    private final boolean detailedPreprocessing;
+
+    ParseCache(Path dir, boolean detailedPreprocessing) {
+        this.dir = dir;
+        this.detailedPreprocessing = detailedPreprocessing;
+    }
+
+    /**
+     * A cache entry: an AST file, along with the diagnostics reported when it was parsed, and the files
+     * it includes (along with a hash of their contents).
+     */
+    record Entry(Path astFile, List<Parser.ParseDiagnostic> diagnostics, Map<Path, String> includedFiles) { }
+
+    /**
+     * {@return the entry for the given source, if the cache contains an up-to-date entry for it}
+     */
+    Optional<Entry> lookup(String name, String content, Collection<String> args) {
+        String key = key(name, content, args);
+        Path astFile = dir.resolve(key + ".ast");
+        Path depsFile = dir.resolve(key + ".deps");
+        try {
+            if (!Files.isRegularFile(astFile) || !Files.isRegularFile(depsFile)) {
+                return Optional.empty();
+            }
+            String astHash = null;
+            List<Parser.ParseDiagnostic> diagnostics = new ArrayList<>();
+            Map<Path, String> includedFiles = new TreeMap<>();
+            for (String line : Files.readAllLines(depsFile)) {
+                // e.g. "dep <hash> <path>"
+                String[] parts = line.split(" ", 3);
+                switch (parts[0]) {
+                    case "ast" -> astHash = parts[1];
+                    case "dep" -> {
+                        Path dep = Path.of(parts[2]);
+                        if (!Files.isRegularFile(dep) || !parts[1].equals(hash(Files.readAllBytes(dep)))) {
+                            return Optional.empty();
+                        }
+                        includedFiles.put(dep, parts[1]);
+                    }
+                    case "diag" -> diagnostics.add(parseDiagnostic(line));
+                    default -> throw new IllegalStateException("Unexpected cache entry: " + line);
+                }
+            }
+            // the AST file might have been replaced by a concurrent store, after the dependency file has been read
+            if (astHash == null || !astHash.equals(hash(Files.readAllBytes(astFile)))) {
+                return Optional.empty();
+            }
+            return Optional.of(new Entry(astFile, diagnostics, includedFiles));
+        } catch (IOException | RuntimeException ex) {
+            // treat a malformed entry as a miss, it will be overwritten
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Saves the given translation unit in the cache.
+     * @param diagnostics the diagnostics reported when the translation unit was parsed.
+     * @param includedFiles the files included by the translation unit, along with a hash of the contents
+     *                      that have been parsed.
+     * @return the AST file the translation unit has been saved to.
+     */
+    Path store(String name, String content, Collection<String> args, TranslationUnit tu,
+               List<Parser.ParseDiagnostic> diagnostics, Map<Path, String> includedFiles) throws IOException {
+        String key = key(name, content, args);
+        Files.createDirectories(dir);
+        // write both files to temporary files first, so that concurrent lookups never see a partial entry
+        Path astFile = dir.resolve(key + ".ast");
+        Path tmpAstFile = Files.createTempFile(dir, key, ".ast.tmp");
+        Path tmpDepsFile = Files.createTempFile(dir, key, ".deps.tmp");
+        try {
+            tu.save(tmpAstFile);
+            List<String> lines = new ArrayList<>();
+            lines.add("ast " + hash(Files.readAllBytes(tmpAstFile)));
+            new TreeMap<>(includedFiles).forEach((dep, depHash) -> lines.add("dep " + depHash + " " + dep));
+            diagnostics.forEach(d -> lines.add(diagnosticLine(d)));
+            Files.write(tmpDepsFile, lines);
+            // the dependency file is moved last: until then, lookups either find no dependency file, or one
+            // whose AST hash does not match
+            Files.move(tmpAstFile, astFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(tmpDepsFile, dir.resolve(key + ".deps"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpAstFile);
+            Files.deleteIfExists(tmpDepsFile);
+        }
+        return astFile;
+    }
+
+    // e.g. "diag <severity> <line> <column>\t<path>\t<spelling>", where the path and the spelling are escaped
+    private static String diagnosticLine(Parser.ParseDiagnostic d) {
+        return String.format("diag %d %d %d\t%s\t%s", d.severity(), d.line(), d.column(),
+                d.path() != null ? escape(d.path().toString()) : "", escape(d.spelling()));
+    }
+
+    private static Parser.ParseDiagnostic parseDiagnostic(String line) {
+        String[] fields = line.split("\t", -1);
+        String[] parts = fields[0].split(" ");
+        return new Parser.ParseDiagnostic(Integer.parseInt(parts[1]),
+                fields[1].isEmpty() ? null : Path.of(unescape(fields[1])),
+                Integer.parseInt(parts[2]), Integer.parseInt(parts[3]), unescape(fields[2]));
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String s) {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                c = switch (s.charAt(++i)) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> s.charAt(i);
+                };
+            }
+            buf.append(c);
+        }
+        return buf.toString();
+    }
+
+    private String key(String name, String content, Collection<String> args) {
+        StringBuilder buf = new StringBuilder();
+        buf.append(CACHE_VERSION).append('\0');
+        buf.append(LibClang.version()).append('\0');
+        buf.append(detailedPreprocessing).append('\0');
+        buf.append(name).append('\0');
+        buf.append(content).append('\0');
+        args.forEach(arg -> buf.append(arg).append('\0'));
+        return hash(buf.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // also used by OutputManifest
+    static String hash(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new AssertionError(ex);
+        }
+    }
+}
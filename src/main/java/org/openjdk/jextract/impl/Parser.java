@@ -36,89 +36,300 @@ import org.openjdk.jextract.clang.SourceLocation;
 import org.openjdk.jextract.clang.SourceRange;
 import org.openjdk.jextract.clang.TranslationUnit;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class Parser {
     private final TreeMaker treeMaker;
     private final Logger logger;
+    private final ParseCache parseCache;
+    private final boolean parseMacros;
+    // files included by the parsed translation units, along with a hash of the contents clang has parsed
+    private final Map<Path, String> includedFiles = new TreeMap<>();
 
     public Parser(Logger logger) {
-        this.treeMaker = new TreeMaker();
+        this(logger, null, true, _ -> true);
+    }
+
+    /**
+     * Creates a new parser. If {@code parseCacheDir} is not {@code null}, translation units are saved in,
+     * and loaded from, a parse cache in that directory. If {@code parseMacros} is {@code false}, macro
+     * definitions are not recorded by clang, and no constants are created for them. This makes parsing
+     * faster, as clang does not need to build a detailed preprocessing record, and no precompiled header
+     * has to be saved and reparsed in order to evaluate macros. Declaration strings, which are used to
+     * generate javadoc comments, are only computed for the declarations accepted by {@code declarationStrings}.
+     */
+    public Parser(Logger logger, Path parseCacheDir, boolean parseMacros, Predicate<Declaration> declarationStrings) {
+        this.treeMaker = new TreeMaker(declarationStrings);
         this.logger = logger;
+        this.parseCache = parseCacheDir != null ? new ParseCache(parseCacheDir, parseMacros) : null;
+        this.parseMacros = parseMacros;
+    }
+
+    /**
+     * {@return the absolute paths of the files included by the translation units parsed so far, along with
+     * a hash of their contents, at the time they were parsed}
+     */
+    public Map<Path, String> includedFiles() {
+        return includedFiles;
     }
 
-    private Declaration.Scoped collectDeclarations(TranslationUnit tu, MacroParserImpl macroParser) {
+    private Declaration.Scoped collectDeclarations(ParsedUnit unit, MacroParserImpl macroParser) {
+        TranslationUnit tu = unit.tu();
+        includedFiles.putAll(unit.includedFiles());
         List<Declaration> decls = new ArrayList<>();
         Cursor tuCursor = tu.getCursor();
         tuCursor.forEach(c -> {
-            SourceLocation loc = c.getSourceLocation();
-            if (loc == null) {
-                return;
-            }
+            // structs returned by libclang queries are only needed while the declaration is processed
+            try (var scope = tu.transientScope()) {
+                SourceLocation loc = c.getSourceLocation();
+                if (loc == null) {
+                    return;
+                }
 
-            SourceLocation.Location src = loc.getFileLocation();
-            if (src == null) {
-                return;
-            }
+                SourceLocation.Location src = loc.getFileLocation();
+                if (src == null) {
+                    return;
+                }
 
-            if (c.isDeclaration()) {
-                if (c.kind() == CursorKind.UnexposedDecl ||
-                        c.kind() == CursorKind.Namespace) {
-                    c.forEach(t -> {
-                        Declaration declaration = treeMaker.createTree(t);
-                        if (declaration != null) {
-                            decls.add(declaration);
+                if (c.isDeclaration()) {
+                    if (c.kind() == CursorKind.UnexposedDecl ||
+                            c.kind() == CursorKind.Namespace) {
+                        c.forEach(t -> {
+                            Declaration declaration = treeMaker.createTree(t);
+                            if (declaration != null) {
+                                decls.add(declaration);
+                            }
+                        });
+                    } else {
+                        Declaration decl = treeMaker.createTree(c);
+                        if (decl != null) {
+                            decls.add(decl);
                         }
-                    });
-                } else {
-                    Declaration decl = treeMaker.createTree(c);
-                    if (decl != null) {
-                        decls.add(decl);
                     }
-                }
-            } else if (isMacro(c) && src.path() != null) {
-                SourceRange range = c.getExtent();
-                String[] tokens = c.getTranslationUnit().tokens(range);
-                Optional<Declaration.Constant> constant = macroParser.parseConstant(c, c.spelling(), tokens);
-                if (constant.isPresent()) {
-                    decls.add(constant.get());
+                } else if (macroParser != null && isMacro(c) && src.path() != null) {
+                    SourceRange range = c.getExtent();
+                    String[] tokens = tu.tokens(range);
+                    Optional<Declaration.Constant> constant = macroParser.parseConstant(c, c.spelling(), tokens);
+                    if (constant.isPresent()) {
+                        decls.add(constant.get());
+                    }
                 }
             }
         });
 
-        decls.addAll(macroParser.macroTable.reparseConstants());
+        if (macroParser != null) {
+            decls.addAll(macroParser.macroTable.reparseConstants());
+        }
         Declaration.Scoped rv = treeMaker.createHeader(tuCursor, decls);
         return rv;
     }
 
     public Declaration.Scoped parse(String name, String content, Collection<String> args) {
-        try (Index index = LibClang.createIndex(false) ;
-             TranslationUnit tu = index.parse(name, content,
-                d -> {
-                    Position pos = asPosition(d.location().getSpellingLocation());
-                    if (d.severity() > Diagnostic.CXDiagnostic_Warning) {
-                        logger.clangErr(pos, d.spelling());
-                    } else if (d.severity() == Diagnostic.CXDiagnostic_Warning) {
-                        logger.clangWarn(pos, d.spelling());
-                    } else if (d.severity() == Diagnostic.CXDiagnostic_Note) {
-                        logger.clangInfo(pos, d.spelling());
-                    }
-                },
-            true, args.toArray(new String[0])) ;
-            MacroParserImpl macroParser = MacroParserImpl.make(treeMaker, logger, tu, args)) {
-            return collectDeclarations(tu, macroParser);
+        try (Index index = LibClang.createIndex(false)) {
+            ParsedUnit unit = parseUnit(index, name, content, this::reportDiagnostic, args);
+            try (TranslationUnit tu = unit.tu() ;
+                 MacroParserImpl macroParser = makeMacroParser(tu, unit.astFile(), args)) {
+                return collectDeclarations(unit, macroParser);
+            }
+        }
+    }
+
+    /**
+     * Parses each of the given sources in its own translation unit. Translation units are parsed concurrently,
+     * using at most {@code threads} threads. Diagnostics are reported, and declarations are collected, one
+     * translation unit at a time and in source order, so that the resulting tree does not depend on thread
+     * scheduling. Declarations that are found in more than one translation unit (e.g. because they are defined
+     * in a header included by more than one source) are shared by all the translation units.
+     */
+    public Declaration.Scoped parse(String name, List<String> contents, Collection<String> args, int threads) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, contents.size()));
+        try {
+            List<Future<Declaration.Scoped>> groups = new ArrayList<>();
+            Future<?> turn = CompletableFuture.completedFuture(null);
+            for (String content : contents) {
+                Future<?> previous = turn;
+                Future<Declaration.Scoped> group = executor.submit(() -> parseGroup(name, content, args, previous));
+                groups.add(group);
+                turn = group;
+            }
+            List<Declaration.Scoped> headers = new ArrayList<>();
+            for (Future<Declaration.Scoped> group : groups) {
+                headers.add(group.get());
+            }
+            return treeMaker.mergeHeaders(headers);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) {
+                throw re;
+            } else if (ex.getCause() instanceof Error err) {
+                throw err;
+            }
+            throw new RuntimeException(ex.getCause());
+        } catch (InterruptedException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Declaration.Scoped parseGroup(String name, String content, Collection<String> args, Future<?> turn)
+            throws ExecutionException, InterruptedException {
+        List<ParseDiagnostic> diagnostics = new ArrayList<>();
+        try (Index index = LibClang.createIndex(false)) {
+            ParsedUnit unit;
+            try {
+                unit = parseUnit(index, name, content, diagnostics::add, args);
+            } catch (RuntimeException | Error ex) {
+                awaitTurn(turn, diagnostics, ex);
+                throw ex;
+            }
+            try (TranslationUnit tu = unit.tu()) {
+                awaitTurn(turn, diagnostics, null);
+                try (MacroParserImpl macroParser = makeMacroParser(tu, unit.astFile(), args)) {
+                    treeMaker.startGroup();
+                    return collectDeclarations(unit, macroParser);
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits until the previous group is done, as the logger and the tree maker are shared, and then reports
+     * the diagnostics of the current group. If the previous group has failed, the failure of the current group
+     * (if any) is added as suppressed to the first failure, which is the one thrown by parse.
+     */
+    private void awaitTurn(Future<?> turn, List<ParseDiagnostic> diagnostics, Throwable failure)
+            throws ExecutionException, InterruptedException {
+        try {
+            turn.get();
+        } catch (ExecutionException | InterruptedException ex) {
+            if (failure != null) {
+                Throwable first = ex;
+                while (first instanceof ExecutionException && first.getCause() != null) {
+                    first = first.getCause();
+                }
+                first.addSuppressed(failure);
+            }
+            throw ex;
+        }
+        diagnostics.forEach(this::reportDiagnostic);
+    }
+
+    // returns null if macros should not be parsed
+    private MacroParserImpl makeMacroParser(TranslationUnit tu, Path astFile, Collection<String> args) {
+        return parseMacros ?
+                MacroParserImpl.make(treeMaker, logger, tu, astFile, args) :
+                null;
+    }
+
+    // a translation unit, the AST file it has been saved to (or null), and the files it includes, along
+    // with a hash of their contents
+    private record ParsedUnit(TranslationUnit tu, Path astFile, Map<Path, String> includedFiles) { }
+
+    /**
+     * Parses the given source. If a parse cache is used, the translation unit is loaded from the cache, if
+     * possible; otherwise it is parsed, and stored in the cache (unless clang reported errors).
+     */
+    private ParsedUnit parseUnit(Index index, String name, String content, Consumer<ParseDiagnostic> dh,
+                                 Collection<String> args) {
+        if (parseCache != null) {
+            Optional<ParseCache.Entry> entry = parseCache.lookup(name, content, args);
+            if (entry.isPresent()) {
+                try {
+                    // report the diagnostics of the original parse, which are not stored in the AST file
+                    TranslationUnit tu = index.load(entry.get().astFile(), _ -> {});
+                    entry.get().diagnostics().forEach(dh);
+                    // the included files have been checked against these hashes when looking up the entry
+                    return new ParsedUnit(tu, entry.get().astFile(), entry.get().includedFiles());
+                } catch (Index.ParsingFailedException ex) {
+                    // unreadable cache entry, parse again
+                }
+            }
+        }
+        List<ParseDiagnostic> diagnostics = new ArrayList<>();
+        TranslationUnit tu = index.parse(name, content, d -> {
+                ParseDiagnostic diagnostic = ParseDiagnostic.of(d);
+                diagnostics.add(diagnostic);
+                dh.accept(diagnostic);
+            }, parseMacros, args.toArray(new String[0]));
+        Map<Path, String> includedFiles = includedFiles(tu);
+        Path astFile = null;
+        if (parseCache != null && diagnostics.stream().noneMatch(ParseDiagnostic::isError)) {
+            try {
+                astFile = parseCache.store(name, content, args, tu, diagnostics, includedFiles);
+            } catch (IOException ex) {
+                logger.warn("jextract.parse.cache.error", ex.getMessage());
+            }
+        }
+        return new ParsedUnit(tu, astFile, includedFiles);
+    }
+
+    /**
+     * Hashes the files included by the given translation unit, using the contents clang has parsed, so that
+     * changes made to these files after they have been parsed are detected by the next run.
+     */
+    private static Map<Path, String> includedFiles(TranslationUnit tu) {
+        Map<Path, String> files = new TreeMap<>();
+        tu.includedFiles().forEach((name, contents) -> {
+            Path file = Path.of(name).toAbsolutePath();
+            // skip in-memory files (such as the parsed source)
+            if (Files.isRegularFile(file)) {
+                try {
+                    files.put(file, ParseCache.hash(contents != null ? contents : Files.readAllBytes(file)));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+        });
+        return files;
+    }
+
+    /**
+     * A diagnostic reported by clang. Diagnostics are copied out of the translation unit, so that they can
+     * be reported after the translation unit has been closed, and stored in the parse cache.
+     */
+    record ParseDiagnostic(int severity, Path path, int line, int column, String spelling) {
+        static ParseDiagnostic of(Diagnostic d) {
+            SourceLocation.Location loc = d.location().getSpellingLocation();
+            return new ParseDiagnostic(d.severity(), loc.path(), loc.line(), loc.column(), d.spelling());
+        }
+
+        boolean isError() {
+            return severity > Diagnostic.CXDiagnostic_Warning;
+        }
+    }
+
+    private void reportDiagnostic(ParseDiagnostic d) {
+        Position pos = asPosition(d);
+        if (d.isError()) {
+            logger.clangErr(pos, d.spelling());
+        } else if (d.severity() == Diagnostic.CXDiagnostic_Warning) {
+            logger.clangWarn(pos, d.spelling());
+        } else if (d.severity() == Diagnostic.CXDiagnostic_Note) {
+            logger.clangInfo(pos, d.spelling());
         }
     }
 
-    private Position asPosition(SourceLocation.Location loc) {
+    private Position asPosition(ParseDiagnostic d) {
         record PositionRecord(Path path, int line, int col) implements Position {}
 
-        return loc.path() == null ? Position.NO_POSITION :
-               new PositionRecord(loc.path(), loc.line(), loc.column());
+        return d.path() == null ? Position.NO_POSITION :
+               new PositionRecord(d.path(), d.line(), d.column());
     }
 
     private boolean isMacro(Cursor c) {
@@ -39,6 +39,17 @@ final class SourceFileBuilder {
     private final StringBuilder sb = new StringBuilder();
     // current line alignment (number of 4-spaces)
     private int align;
+    // whether the next appended character starts a new line (see appendPart)
+    private boolean lineStart;
+
+    // indentation strings, indexed by alignment
+    private static final String[] INDENTS = new String[16];
+
+    static {
+        for (int i = 0; i < INDENTS.length; i++) {
+            INDENTS[i] = "    ".repeat(i);
+        }
+    }
 
     private SourceFileBuilder(String packageName, String className) {
         this.packageName = packageName;
@@ -95,22 +106,89 @@ final class SourceFileBuilder {
         align--;
     }
 
-    public JavaSourceFile toFile(String suffix, Function<String, String> finisher) {
-        return new JavaSourceFile(String.format("%1$s%2$s", className, suffix), packageName, finisher.apply(sb.toString()));
+    // current length of the generated source
+    int length() {
+        return sb.length();
+    }
+
+    /**
+     * Creates a source file for the class with the given name suffix. The finisher is only applied to the
+     * first {@code prefixLength} characters of the generated source (e.g. the class declaration), so that
+     * the rest of the generated source does not need to be scanned.
+     */
+    public JavaSourceFile toFile(String suffix, int prefixLength, Function<String, String> prefixFinisher) {
+        sb.replace(0, prefixLength, prefixFinisher.apply(sb.substring(0, prefixLength)));
+        return toFile(suffix);
     }
 
-    public JavaSourceFile toFile(Function<String, String> finisher) {
-        return toFile("", finisher);
+    public JavaSourceFile toFile(String suffix) {
+        return new JavaSourceFile(String.format("%1$s%2$s", className, suffix), packageName, sb.toString());
     }
 
     public JavaSourceFile toFile() {
-        return toFile(s -> s);
+        return toFile("");
+    }
+
+    static String indent(int align) {
+        return align < INDENTS.length ?
+                INDENTS[align] :
+                "    ".repeat(align);
     }
 
     public void appendLines(String s) {
-        // we don't just simply use indent here, since that will also indent empty lines which adds trailing whitespace
-        String indent = "    ".repeat(align);
-        s.lines().map(l -> l.isEmpty() ? "\n" : indent + l + "\n").forEach(sb::append);
+        beginLines();
+        appendPart(s);
+        endLines();
+    }
+
+    public void appendLines(CodeTemplate template, String... args) {
+        template.appendTo(this, args);
+    }
+
+    /*
+     * Appending lines is done in three steps: beginLines starts a new sequence of lines, appendPart
+     * appends some text (which might span multiple lines) and endLines terminates the last line. Each
+     * non-empty line is indented, using the current alignment. We don't just simply use String::indent
+     * here, since that will also indent empty lines, which adds trailing whitespace.
+     */
+
+    void beginLines() {
+        lineStart = true;
+    }
+
+    void appendPart(String s) {
+        String indent = indent(align);
+        int start = 0;
+        int length = s.length();
+        while (start < length) {
+            int end = start;
+            char c = 0;
+            while (end < length && (c = s.charAt(end)) != '\n' && c != '\r') {
+                end++;
+            }
+            if (end > start) {
+                if (lineStart) {
+                    sb.append(indent);
+                    lineStart = false;
+                }
+                sb.append(s, start, end);
+            }
+            if (end == length) {
+                break;
+            }
+            // line terminator
+            sb.append('\n');
+            lineStart = true;
+            start = (c == '\r' && end + 1 < length && s.charAt(end + 1) == '\n') ?
+                    end + 2 : end + 1;
+        }
+    }
+
+    void endLines() {
+        if (!lineStart) {
+            sb.append('\n');
+            lineStart = true;
+        }
     }
 
     public void appendIndentedLines(String s) {
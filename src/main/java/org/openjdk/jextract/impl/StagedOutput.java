@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.openjdk.jextract.impl;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A set of files which are written to temporary files (next to the files they replace) as they are
+ * generated, and which are only moved in place once all the files have been generated. This way, a
+ * failure while generating files leaves the output directory untouched, rather than leaving regenerated
+ * files next to stale ones.
+ */
+public final class StagedOutput {
+
+    // the temporary file of each staged file, in the order in which the files have been written
+    private final Map<Path, Path> tmpFiles = new LinkedHashMap<>();
+
+    /**
+     * Writes a file to a temporary file, which is moved in place by {@link #commit()}.
+     * @param file the path of the file. Its parent directory must exist.
+     * @param contents the contents of the file.
+     */
+    public void write(Path file, byte[] contents) throws IOException {
+        Path tmpFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        Path previous = tmpFiles.put(file, tmpFile);
+        if (previous != null) {
+            // the file has been written more than once, the last contents win
+            Files.deleteIfExists(previous);
+        }
+        Files.write(tmpFile, contents);
+    }
+
+    /**
+     * {@return {@code true} if there are no staged files}
+     */
+    public boolean isEmpty() {
+        return tmpFiles.isEmpty();
+    }
+
+    /**
+     * Moves the staged files in place (each file is moved atomically, where supported).
+     */
+    public void commit() throws IOException {
+        Iterator<Map.Entry<Path, Path>> it = tmpFiles.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Path, Path> entry = it.next();
+            move(entry.getValue(), entry.getKey());
+            it.remove();
+        }
+    }
+
+    /**
+     * Deletes the temporary files of the files that have not been moved in place.
+     */
+    public void discard() {
+        for (Path tmpFile : tmpFiles.values()) {
+            try {
+                Files.deleteIfExists(tmpFile);
+            } catch (IOException ex) {
+                // best effort, the temporary file is left behind
+            }
+        }
+        tmpFiles.clear();
+    }
+
+    static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
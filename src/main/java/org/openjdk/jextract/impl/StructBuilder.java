@@ -151,6 +151,13 @@ final class StructBuilder extends ClassSourceBuilder implements OutputFactory.Bu
         } else if (Utils.isPointer(varTree.type()) || Utils.isPrimitive(varTree.type())) {
             emitFieldGetter(javaName, varTree, layoutField, offsetField);
             emitFieldSetter(javaName, varTree, layoutField, offsetField);
+            emitFieldElementGetter(javaName, varTree, layoutField, offsetField);
+            emitFieldElementSetter(javaName, varTree, layoutField, offsetField);
+            Class<?> carrier = Utils.carrierFor(varTree.type());
+            if (carrier.isPrimitive() && carrier != boolean.class) {
+                emitFieldGather(javaName, varTree, layoutField, offsetField);
+                emitFieldScatter(javaName, varTree, layoutField, offsetField);
+            }
         } else {
             throw new IllegalArgumentException(String.format("Type not supported: %1$s", varTree.type()));
         }
@@ -208,6 +215,116 @@ final class StructBuilder extends ClassSourceBuilder implements OutputFactory.Bu
             """, javaName, segmentParam, type.getSimpleName(), valueParam, layoutField, offsetField);
     }
 
+    // accessors for the field of the element at a given index in an array of structs, which
+    // access the array directly, instead of creating a slice for the element (see asSlice)
+    private void emitFieldElementGetter(String javaName, Declaration.Variable varTree, String layoutField, String offsetField) {
+        String arrayParam = safeParameterName("array");
+        String indexParam = safeParameterName("index");
+        Class<?> type = Utils.carrierFor(varTree.type());
+        appendBlankLine();
+        emitFieldDocComment(varTree, "Getter for field, in the array element at {@code " + indexParam + "}:");
+        appendIndentedLines("""
+            public static %1$s %2$s$at(MemorySegment %3$s, long %4$s) {
+                return %3$s.get(%5$s, %4$s * $LAYOUT.byteSize() + %6$s);
+            }
+            """, type.getSimpleName(), javaName, arrayParam, indexParam, layoutField, offsetField);
+    }
+
+    private void emitFieldElementSetter(String javaName, Declaration.Variable varTree, String layoutField, String offsetField) {
+        String arrayParam = safeParameterName("array");
+        String indexParam = safeParameterName("index");
+        String valueParam = safeParameterName("fieldValue");
+        Class<?> type = Utils.carrierFor(varTree.type());
+        appendBlankLine();
+        emitFieldDocComment(varTree, "Setter for field, in the array element at {@code " + indexParam + "}:");
+        appendIndentedLines("""
+            public static void %1$s$at(MemorySegment %2$s, long %3$s, %4$s %5$s) {
+                %2$s.set(%6$s, %3$s * $LAYOUT.byteSize() + %7$s, %5$s);
+            }
+            """, javaName, arrayParam, indexParam, type.getSimpleName(), valueParam, layoutField, offsetField);
+    }
+
+    // bulk accessors which copy the field of a range of elements in an array of structs to a Java array, or
+    // to a segment where the field values are contiguous (and back). Since the field values are not contiguous
+    // in the array of structs, MemorySegment::copy can not be used, hence the (counted) loops.
+    private void emitFieldGather(String javaName, Declaration.Variable varTree, String layoutField, String offsetField) {
+        String arrayParam = safeParameterName("array");
+        String indexParam = safeParameterName("index");
+        String dstParam = safeParameterName("dst");
+        String dstIndexParam = safeParameterName("dstIndex");
+        String countParam = safeParameterName("count");
+        Class<?> type = Utils.carrierFor(varTree.type());
+        appendBlankLine();
+        emitFieldDocComment(varTree, String.format(
+                "Copies the field of {@code %1$s} elements, starting at {@code %2$s}, to {@code %3$s}, for field:",
+                countParam, indexParam, dstParam));
+        appendIndentedLines("""
+            public static void %1$s$gather(MemorySegment %2$s, long %3$s, %4$s[] %5$s, int %6$s, int %7$s) {
+                Objects.checkFromIndexSize(%6$s, %7$s, %5$s.length);
+                long offset$ = %3$s * $LAYOUT.byteSize() + %8$s;
+                for (int i$ = 0; i$ < %7$s; i$++) {
+                    %5$s[%6$s + i$] = %2$s.get(%9$s, offset$);
+                    offset$ += $LAYOUT.byteSize();
+                }
+            }
+            """, javaName, arrayParam, indexParam, type.getSimpleName(), dstParam, dstIndexParam, countParam,
+                offsetField, layoutField);
+        appendBlankLine();
+        emitFieldDocComment(varTree, String.format(
+                "Copies the field of {@code %1$s} elements, starting at {@code %2$s}, to the contiguous elements of {@code %3$s}, starting at {@code %4$s}, for field:",
+                countParam, indexParam, dstParam, dstIndexParam));
+        appendIndentedLines("""
+            public static void %1$s$gather(MemorySegment %2$s, long %3$s, MemorySegment %4$s, long %5$s, long %6$s) {
+                long offset$ = %3$s * $LAYOUT.byteSize() + %7$s;
+                long dstOffset$ = %5$s * %8$s.byteSize();
+                for (long i$ = 0; i$ < %6$s; i$++) {
+                    %4$s.set(%8$s, dstOffset$, %2$s.get(%8$s, offset$));
+                    offset$ += $LAYOUT.byteSize();
+                    dstOffset$ += %8$s.byteSize();
+                }
+            }
+            """, javaName, arrayParam, indexParam, dstParam, dstIndexParam, countParam, offsetField, layoutField);
+    }
+
+    private void emitFieldScatter(String javaName, Declaration.Variable varTree, String layoutField, String offsetField) {
+        String arrayParam = safeParameterName("array");
+        String indexParam = safeParameterName("index");
+        String srcParam = safeParameterName("src");
+        String srcIndexParam = safeParameterName("srcIndex");
+        String countParam = safeParameterName("count");
+        Class<?> type = Utils.carrierFor(varTree.type());
+        appendBlankLine();
+        emitFieldDocComment(varTree, String.format(
+                "Copies {@code %1$s} values of {@code %2$s} to the field of the elements starting at {@code %3$s}, for field:",
+                countParam, srcParam, indexParam));
+        appendIndentedLines("""
+            public static void %1$s$scatter(MemorySegment %2$s, long %3$s, %4$s[] %5$s, int %6$s, int %7$s) {
+                Objects.checkFromIndexSize(%6$s, %7$s, %5$s.length);
+                long offset$ = %3$s * $LAYOUT.byteSize() + %8$s;
+                for (int i$ = 0; i$ < %7$s; i$++) {
+                    %2$s.set(%9$s, offset$, %5$s[%6$s + i$]);
+                    offset$ += $LAYOUT.byteSize();
+                }
+            }
+            """, javaName, arrayParam, indexParam, type.getSimpleName(), srcParam, srcIndexParam, countParam,
+                offsetField, layoutField);
+        appendBlankLine();
+        emitFieldDocComment(varTree, String.format(
+                "Copies {@code %1$s} contiguous values of {@code %2$s}, starting at {@code %3$s}, to the field of the elements starting at {@code %4$s}, for field:",
+                countParam, srcParam, srcIndexParam, indexParam));
+        appendIndentedLines("""
+            public static void %1$s$scatter(MemorySegment %2$s, long %3$s, MemorySegment %4$s, long %5$s, long %6$s) {
+                long offset$ = %3$s * $LAYOUT.byteSize() + %7$s;
+                long srcOffset$ = %5$s * %8$s.byteSize();
+                for (long i$ = 0; i$ < %6$s; i$++) {
+                    %2$s.set(%8$s, offset$, %4$s.get(%8$s, srcOffset$));
+                    offset$ += $LAYOUT.byteSize();
+                    srcOffset$ += %8$s.byteSize();
+                }
+            }
+            """, javaName, arrayParam, indexParam, srcParam, srcIndexParam, countParam, offsetField, layoutField);
+    }
+
     private void emitSegmentGetter(String javaName, Declaration.Variable varTree, String offsetField, String layoutField) {
         appendBlankLine();
         emitFieldDocComment(varTree, "Getter for field:");
@@ -31,50 +31,95 @@ import org.openjdk.jextract.impl.DeclarationImpl.JavaFunctionalInterfaceName;
 import org.openjdk.jextract.impl.DeclarationImpl.JavaName;
 
 import java.lang.constant.ClassDesc;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * A helper class to generate header interface class in source form.
- * After aggregating various constituents of a .java source, build
- * method is called to get overall generated source string.
+ * After aggregating various constituents of a .java source, the generated
+ * source files are passed to a sink, as soon as they are complete.
+ * <p>
+ * Source files that do not depend on the header classes (e.g. struct classes) are generated
+ * in a fork-join pool. Source files are passed to the sink in the order in which they have
+ * been added, regardless of the order in which they are completed, so that the output does
+ * not depend on thread scheduling.
  */
 class ToplevelBuilder implements OutputFactory.Builder {
     private static final int DECLS_PER_HEADER_CLASS = Integer.getInteger("jextract.decls.per.header", 1000);
-    public static final String PREV_SUFFIX = "#{PREV_SUFFIX}";
     private static final String SUFFIX = "#{SUFFIX}";
     private final String shared;
+    // whether header classes keep their handles in a table, rather than in holder classes
+    private final boolean handleTables;
+    // whether source files which do not depend on the header classes are generated in a fork-join pool
+    private final boolean parallelCodegen;
+    private final Consumer<JavaSourceFile> sink;
+    // source files that have not been passed to the sink yet, in order
+    private final Queue<CompletableFuture<JavaSourceFile>> pendingFiles = new ArrayDeque<>();
+
+    // the shared class, if it is kept open to add shared downcall handles (see downcallHolder)
+    private HeaderFileBuilder sharedHeader;
+    // shared downcall handle holder classes, keyed by function descriptor and linker options
+    private final Map<List<String>, String> downcallHolders = new HashMap<>();
 
     private int declCount;
-    private final List<SourceFileBuilder> headerBuilders = new ArrayList<>();
-    private final List<SourceFileBuilder> otherBuilders = new ArrayList<>();
+    // number of header classes that have been completed so far
+    private int headerCount;
     private HeaderFileBuilder lastHeader;
+    // length of the class declaration (and constructor) at the start of the last header class
+    private int lastHeaderPrologue;
     private final ClassDesc headerDesc;
 
-    ToplevelBuilder(String packageName, String headerClassName, List<Options.Library> libs,
-                    boolean useSystemLoadLibrary, String sharedClassName) {
+    ToplevelBuilder(String packageName, String headerClassName, Options options, Consumer<JavaSourceFile> sink) {
         this.headerDesc = ClassDesc.of(packageName, headerClassName);
-        shared = sharedClassName != null ?
-                sharedClassName :
+        this.sink = sink;
+        this.handleTables = options.handleTables;
+        this.parallelCodegen = options.parallelCodegen;
+        shared = options.sharedClassName != null ?
+                options.sharedClassName :
                 headerDesc.displayName() + "$shared";
 
-        initSharedClass();
-        initFirstHeader(libs, useSystemLoadLibrary);
+        initSharedClass(options.sharedDowncallHandles);
+        initFirstHeader(options.libraries, options.useSystemLoadLibrary);
     }
 
-    private void initSharedClass() {
+    private void initSharedClass(boolean sharedDowncallHandles) {
         SourceFileBuilder sfb = SourceFileBuilder.newSourceFile(packageName(), shared);
         HeaderFileBuilder sharedHeader = initHeader(sfb, shared, null, null);
-        otherBuilders.add(sfb);
         sharedHeader.emitBasicPrimitiveTypes();
         sharedHeader.emitRuntimeHelperMethods();
-        sharedHeader.classEnd();
+        if (sharedDowncallHandles) {
+            // downcall handle holders are added to the shared class as functions are generated
+            this.sharedHeader = sharedHeader;
+        } else {
+            sharedHeader.classEnd();
+            addFile(sfb.toFile());
+        }
+    }
+
+    /**
+     * {@return the name of a class, nested in the shared class, which holds an address-less downcall
+     * handle for the given function descriptor and linker options} Functions with the same descriptor (and
+     * linker options) share the same handle.
+     */
+    private String downcallHolder(String descriptor, String linkerOptions) {
+        return downcallHolders.computeIfAbsent(List.of(descriptor, linkerOptions), _ -> {
+            String holderName = "downcall$" + downcallHolders.size();
+            sharedHeader.emitDowncallHolder(holderName, descriptor, linkerOptions);
+            return shared + "." + holderName;
+        });
     }
 
     private void initFirstHeader(List<Options.Library> libs, boolean useSystemLoadLibrary) {
         String base = headerDesc.displayName();
         SourceFileBuilder sfb = SourceFileBuilder.newSourceFile(packageName(), base);
-        headerBuilders.add(sfb);
 
         lastHeader = initHeader(
                 sfb,
@@ -82,6 +127,7 @@ class ToplevelBuilder implements OutputFactory.Builder {
                 shared,
                 base
         );
+        lastHeaderPrologue = sfb.length();
         lastHeader.emitLibaryArena();
         lastHeader.emitFirstHeaderPreamble(libs, useSystemLoadLibrary);
     }
@@ -92,7 +138,7 @@ class ToplevelBuilder implements OutputFactory.Builder {
     private HeaderFileBuilder initHeader(SourceFileBuilder sfb, String classNameWithSuffix,
                                          String superClass, String extendsClass) {
         HeaderFileBuilder hfb = new HeaderFileBuilder(sfb, classNameWithSuffix,
-                superClass, extendsClass);
+                superClass, extendsClass, sharedHeader != null ? this::downcallHolder : null, handleTables);
         hfb.appendBlankLine();
         hfb.classBegin();
         hfb.emitDefaultConstructor();
@@ -100,7 +146,7 @@ class ToplevelBuilder implements OutputFactory.Builder {
     }
 
     /**
-     * Creates a new header file chunk
+     * Creates a new header file chunk, which extends the last completed header class
      */
     private HeaderFileBuilder newHeaderChunk() {
         String base = headerDesc.displayName();
@@ -108,45 +154,71 @@ class ToplevelBuilder implements OutputFactory.Builder {
         HeaderFileBuilder hfb = initHeader(
                 sfb,
                 base + SUFFIX,
-                base + PREV_SUFFIX,
+                base + "_" + headerCount,
                 base
         );
-        headerBuilders.add(sfb);
+        lastHeaderPrologue = sfb.length();
         return hfb;
     }
 
-    public List<JavaSourceFile> toFiles() {
+    /**
+     * Completes the last header class. Header classes form a chain, where each header class extends the
+     * previous one. The last header class becomes the main header class (which drops the suffix, and is the
+     * only public header class), while the other header classes are numbered in the order in which
+     * they have been completed.
+     */
+    private void endHeader(boolean isMainHeader) {
+        lastHeader.emitHandleTable();
         lastHeader.classEnd();
+        String suffix = isMainHeader ?
+                "" :
+                String.format("_%d", ++headerCount);
+        String className = headerDesc.displayName();
+        String modifier = isMainHeader ? "public " : "";
+        addFile(lastHeader.sourceFileBuilder().toFile(suffix, lastHeaderPrologue, prologue ->
+                prologue.replace("public class " + className, modifier + "class " + className)
+                        .replace(SUFFIX, suffix)));
+    }
 
-        List<JavaSourceFile> files = new ArrayList<>();
+    public void end() {
+        endHeader(true);
+        if (sharedHeader != null) {
+            sharedHeader.classEnd();
+            addFile(sharedHeader.sourceFileBuilder().toFile());
+        }
+        flushFiles(true);
+    }
 
-        if (headerBuilders.size() == 1) {
-            files.add(headerBuilders.getFirst().toFile(s -> s.replace(SUFFIX, "")));
-        } else {
-            // adjust suffixes so that the last header class becomes the main header class,
-            // and extends all the other header classes
-            int totalHeaders = headerBuilders.size();
-            for (int i = 0; i < totalHeaders; i++) {
-                SourceFileBuilder header = headerBuilders.get(i);
-                boolean isMainHeader = (i == totalHeaders - 1); // last header is the main header
-                String currentSuffix = isMainHeader ?
-                        "" : // main header class, drop the suffix
-                        String.format("_%d", totalHeaders - i - 1);
-                String preSuffix = String.format("_%d", totalHeaders - i);
-                String className = headerBuilders.getFirst().className();
-                String modifier = isMainHeader ? "public " : "";
-
-                files.add(header.toFile(currentSuffix, s ->
-                        s.replace("public class " + className, modifier + "class " + className)
-                                .replace(SUFFIX, currentSuffix)
-                                .replace(PREV_SUFFIX, preSuffix)
-                ));
+    private void addFile(JavaSourceFile file) {
+        pendingFiles.add(CompletableFuture.completedFuture(file));
+        flushFiles(false);
+    }
+
+    /**
+     * Adds a source file, which is generated by the given generator (possibly in a different thread).
+     * The generator must not depend on the state of this builder.
+     */
+    public void addFile(Supplier<JavaSourceFile> generator) {
+        pendingFiles.add(parallelCodegen ?
+                CompletableFuture.supplyAsync(generator, ForkJoinPool.commonPool()) :
+                CompletableFuture.completedFuture(generator.get()));
+        flushFiles(false);
+    }
+
+    // pass the completed files at the head of the queue to the sink (or all files, waiting if needed)
+    private void flushFiles(boolean all) {
+        while (!pendingFiles.isEmpty() && (all || pendingFiles.peek().isDone())) {
+            try {
+                sink.accept(pendingFiles.poll().join());
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException re) {
+                    throw re;
+                } else if (ex.getCause() instanceof Error err) {
+                    throw err;
+                }
+                throw ex;
             }
         }
-        // add remaining builders
-        files.addAll(otherBuilders.stream()
-                .map(SourceFileBuilder::toFile).toList());
-        return files;
     }
 
     public String mainHeaderClassName() {
@@ -182,16 +254,17 @@ class ToplevelBuilder implements OutputFactory.Builder {
             // pointer typedef
             nextHeader().emitPointerTypedef(typedefTree, javaName);
         } else {
-            SourceFileBuilder sfb = SourceFileBuilder.newSourceFile(packageName(), javaName);
-            TypedefBuilder.generate(sfb, sfb.className(), superClass, mainHeaderClassName(), typedefTree);
-            otherBuilders.add(sfb);
+            addFile(() -> {
+                SourceFileBuilder sfb = SourceFileBuilder.newSourceFile(packageName(), javaName);
+                TypedefBuilder.generate(sfb, sfb.className(), superClass, mainHeaderClassName(), typedefTree);
+                return sfb.toFile();
+            });
         }
     }
 
     @Override
     public StructBuilder addStruct(Declaration.Scoped tree) {
         SourceFileBuilder sfb = SourceFileBuilder.newSourceFile(packageName(), JavaName.getOrThrow(tree));
-        otherBuilders.add(sfb);
         StructBuilder structBuilder = new StructBuilder(sfb, "public", sfb.className(), null, mainHeaderClassName(), tree);
         structBuilder.begin();
         return structBuilder;
@@ -199,14 +272,16 @@ class ToplevelBuilder implements OutputFactory.Builder {
 
     @Override
     public void addFunctionalInterface(Declaration parentDecl, Type.Function funcType) {
-        SourceFileBuilder sfb = SourceFileBuilder.newSourceFile(packageName(), JavaFunctionalInterfaceName.getOrThrow(parentDecl));
-        otherBuilders.add(sfb);
-        FunctionalInterfaceBuilder.generate(sfb, sfb.className(), null, mainHeaderClassName(), parentDecl, funcType, false);
+        addFile(() -> {
+            SourceFileBuilder sfb = SourceFileBuilder.newSourceFile(packageName(), JavaFunctionalInterfaceName.getOrThrow(parentDecl));
+            FunctionalInterfaceBuilder.generate(sfb, sfb.className(), null, mainHeaderClassName(), parentDecl, funcType, false);
+            return sfb.toFile();
+        });
     }
 
     private HeaderFileBuilder nextHeader() {
         if (declCount == DECLS_PER_HEADER_CLASS) {
-            lastHeader.classEnd();
+            endHeader(false);
             lastHeader = newHeaderChunk();
             declCount = 1;
         } else {
@@ -29,12 +29,16 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalLong;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.openjdk.jextract.Declaration;
@@ -67,9 +71,42 @@ import org.openjdk.jextract.impl.DeclarationImpl.DeclarationString;
  */
 class TreeMaker {
 
+    private static final Pattern ANONYMOUS_DECLARATION =
+            Pattern.compile(".*\\((unnamed|anonymous) (struct|union|enum) at.*");
+
     private final Map<Cursor.Key, Declaration> declarationCache = new HashMap<>();
+    // declarations created while parsing header groups, indexed by kind, name and position
+    private final Map<GroupKey, GroupDeclaration> groupDeclarations = new HashMap<>();
+    private int group = -1;
+    // declarations for which a declaration string should be computed
+    private final Predicate<Declaration> declarationStrings;
+
+    public TreeMaker(Predicate<Declaration> declarationStrings) {
+        this.declarationStrings = declarationStrings;
+    }
+
+    /**
+     * Starts a new header group. Cursors from different translation units cannot be compared using
+     * {@link Cursor.Key}, so declarations created for a header group are also indexed by their kind, name and
+     * position. A declaration that has already been created by a previous group (e.g. because it appears
+     * in a header that is included by both groups) is then shared, rather than created again.
+     */
+    void startGroup() {
+        group++;
+    }
 
-    public TreeMaker() { }
+    /**
+     * Merges the toplevel declarations of the given header groups. Members are added in group order;
+     * members that are shared by multiple groups are only added once.
+     */
+    Declaration.Scoped mergeHeaders(List<Declaration.Scoped> headers) {
+        Set<Declaration> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Declaration[] members = headers.stream()
+                .flatMap(h -> h.members().stream())
+                .filter(seen::add)
+                .toArray(Declaration[]::new);
+        return Declaration.toplevel(headers.get(0).pos(), members);
+    }
 
     Declaration addAttributes(Declaration d, Cursor c) {
         if (d == null) return null;
@@ -129,6 +166,15 @@ class TreeMaker {
         if (cachedDecl.isPresent()) {
             return cachedDecl.get();
         }
+        GroupKey groupKey = null;
+        if (group >= 0) {
+            groupKey = new GroupKey(c.kind(), c.spelling(), pos);
+            GroupDeclaration groupDecl = groupDeclarations.get(groupKey);
+            if (groupDecl != null && groupDecl.group() != group) {
+                declarationCache.put(key, groupDecl.decl());
+                return groupDecl.decl();
+            }
+        }
         Declaration decl = switch (c.kind()) {
             case EnumDecl -> createEnum(c);
             case EnumConstantDecl -> createEnumConstant(c);
@@ -143,20 +189,25 @@ class TreeMaker {
         };
         if (decl != null) {
             declarationCache.put(key, withDeclarationString(decl, c));
+            if (groupKey != null) {
+                groupDeclarations.putIfAbsent(groupKey, new GroupDeclaration(decl, group));
+            }
         }
         return decl;
     }
 
+    private record GroupKey(CursorKind kind, String name, Position pos) { }
+
+    private record GroupDeclaration(Declaration decl, int group) { }
+
     static class CursorPosition implements Position {
-        private final Cursor cursor;
         private final Path path;
         private final int line;
         private final int column;
 
-        private CursorPosition(Cursor cursor) {
-            this.cursor = cursor;
-            SourceLocation.Location loc = cursor.getSourceLocation().getFileLocation();
-            this.path = loc.path().toAbsolutePath();
+        private CursorPosition(SourceLocation.Location loc) {
+            // paths are interned (and made absolute) by the translation unit
+            this.path = loc.path();
             this.line = loc.line();
             this.column = loc.column();
         }
@@ -170,10 +221,9 @@ class TreeMaker {
             if (sloc == null) {
                 return NO_POSITION;
             }
-            return new CursorPosition(cursor);
+            return new CursorPosition(sloc);
         }
 
-
         @Override
         public Path path() {
             return path;
@@ -189,10 +239,6 @@ class TreeMaker {
             return column;
         }
 
-        public Cursor cursor() {
-            return cursor;
-        }
-
         @Override
         public boolean equals(Object obj) {
             if (this == obj) return true;
@@ -229,6 +275,9 @@ class TreeMaker {
 
     public Declaration.Constant createMacro(Position pos, String name, Type type, Object value) {
         Declaration.Constant macro = Declaration.constant(pos, name, value, type);
+        if (!declarationStrings.test(macro)) {
+            return macro;
+        }
         String valueString = value.toString();
         if (value instanceof String) {
             // quote string literal
@@ -371,7 +420,9 @@ class TreeMaker {
             c.forEach(child -> {
                 if (child.kind() == CursorKind.EnumConstantDecl) {
                     Declaration enumConstantDecl = createTree(child);
-                    DeclarationString.with(enumConstantDecl, enumConstantString(c.spelling(), (Declaration.Constant) enumConstantDecl));
+                    if (declarationStrings.test(enumConstantDecl)) {
+                        DeclarationString.with(enumConstantDecl, enumConstantString(c.spelling(), (Declaration.Constant) enumConstantDecl));
+                    }
                     decls.add(enumConstantDecl);
                 }
             });
@@ -504,13 +555,19 @@ class TreeMaker {
     }
 
     private <D extends Declaration> D withDeclarationString(D decl, Cursor cursor) {
+        if (!declarationStrings.test(decl)) {
+            return decl;
+        }
         String declString = switch (decl) {
             case Declaration.Constant _ -> null; // do nothing for enum constants
+            // parameter strings are only used by the functional interfaces of function pointer parameters
+            case Variable var when var.kind() == Variable.Kind.PARAMETER &&
+                    !isFunctionPointer(cursor.type()) -> null;
             case Typedef _ -> declarationString(cursor, true); // always expand typedefs
             default -> {
                 // heuristic, try w/o expanding first, and check if there are <anonymous> strings
                 String cursorString = declarationString(cursor, false);
-                if (cursorString.matches(".*\\((unnamed|anonymous) (struct|union|enum) at.*")) {
+                if (ANONYMOUS_DECLARATION.matcher(cursorString).matches()) {
                     // the output contains anonymous definitions, fallback and expand them
                     cursorString = declarationString(cursor, true);
                 }
@@ -524,12 +581,22 @@ class TreeMaker {
     }
 
     private String declarationString(Cursor cursor, boolean expandNestedDecls) {
-        PrintingPolicy pp = cursor.getPrintingPolicy();
-        if (expandNestedDecls) {
-            pp.setProperty(PrintingPolicyProperty.IncludeTagDefinition, true);
+        try (PrintingPolicy pp = cursor.getPrintingPolicy()) {
+            if (expandNestedDecls) {
+                pp.setProperty(PrintingPolicyProperty.IncludeTagDefinition, true);
+            }
+            pp.setProperty(PrintingPolicyProperty.PolishForDeclaration, true);
+            return cursor.prettyPrinted(pp);
+        }
+    }
+
+    private static boolean isFunctionPointer(org.openjdk.jextract.clang.Type type) {
+        org.openjdk.jextract.clang.Type canonical = type.canonicalType();
+        if (canonical.kind() != TypeKind.Pointer) {
+            return false;
         }
-        pp.setProperty(PrintingPolicyProperty.PolishForDeclaration, true);
-        return cursor.prettyPrinted(pp);
+        TypeKind pointeeKind = canonical.getPointeeType().kind();
+        return pointeeKind == TypeKind.FunctionProto || pointeeKind == TypeKind.FunctionNoProto;
     }
 
     private String enumConstantString(String enumName, Declaration.Constant enumConstant) {
@@ -189,10 +189,17 @@ public abstract class TypeImpl implements Type {
                 .withTargetLayout(MemoryLayout.sequenceLayout(Long.MAX_VALUE, ValueLayout.JAVA_BYTE));
 
         private final Supplier<Type> pointeeFactory;
+        // whether the pointee type is const-qualified (e.g. const char*)
+        private final boolean pointeeConst;
 
         public PointerImpl(Supplier<Type> pointeeFactory) {
+            this(pointeeFactory, false);
+        }
+
+        public PointerImpl(Supplier<Type> pointeeFactory, boolean pointeeConst) {
             super(Kind.POINTER, Optional.empty());
             this.pointeeFactory = Objects.requireNonNull(pointeeFactory);
+            this.pointeeConst = pointeeConst;
         }
 
         public PointerImpl(Type pointee) {
@@ -203,6 +210,10 @@ public abstract class TypeImpl implements Type {
         public Type type() {
             return pointeeFactory.get();
         }
+
+        public boolean isPointeeConst() {
+            return pointeeConst;
+        }
     }
 
     public static final class DeclaredImpl extends TypeImpl implements Type.Declared {
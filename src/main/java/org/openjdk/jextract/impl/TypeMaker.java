@@ -130,14 +130,17 @@ class TypeMaker {
             case BlockPointer:
             case Pointer: {
                 org.openjdk.jextract.clang.Type pointee = t.getPointeeType();
+                // qualifiers added by typedefs (e.g. const_char_t*) are only seen by the canonical type
+                boolean pointeeConst = pointee.canonicalType().isConstQualifierdType();
                 if (pointee.kind() == TypeKind.FunctionProto ||
                         pointee.getDeclarationCursor().isInvalid()) {
-                    return Type.pointer(makeType(t.getPointeeType(), treeMaker));
+                    Type pointeeType = makeType(t.getPointeeType(), treeMaker);
+                    return new TypeImpl.PointerImpl(() -> pointeeType, pointeeConst);
                 } else {
                     // struct/union pointer - defer processing of pointee type
                     Cursor declCursor = pointee.getDeclarationCursor();
                     Cursor.Key key = declCursor.toKey();
-                    return Type.pointer(() -> {
+                    return new TypeImpl.PointerImpl(() -> {
                         Optional<Declaration> decl = treeMaker.lookup(key);
                         if (decl.isEmpty()) {
                             // no declaration, maybe an opaque type, give up and downgrade to void pointer
@@ -149,7 +152,7 @@ class TypeMaker {
                                 default -> throw new UnsupportedOperationException();
                             };
                         }
-                    });
+                    }, pointeeConst);
                 }
             }
             case Typedef: {
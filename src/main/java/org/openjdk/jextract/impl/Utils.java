@@ -160,6 +160,63 @@ class Utils {
         };
     }
 
+    /**
+     * {@return the Java array type whose elements have the same layout as the pointee of the given pointer type
+     * (e.g. {@code int[]} for {@code int*}), or {@code null} if there is no such type}
+     */
+    static Class<?> heapArrayTypeFor(Type type) {
+        return switch (type) {
+            case Type.Delegated delegated when delegated.kind() == Kind.TYPEDEF -> heapArrayTypeFor(delegated.type());
+            case Type.Delegated delegated when delegated.kind() == Kind.POINTER -> {
+                Class<?> elementType = heapArrayElementTypeFor(delegated.type());
+                yield elementType != null ? elementType.arrayType() : null;
+            }
+            default -> null;
+        };
+    }
+
+    private static Class<?> heapArrayElementTypeFor(Type type) {
+        return switch (type) {
+            case Type.Primitive p -> switch (p.kind()) {
+                case Char, Short, Int, Long, LongLong, Float, Double -> carrierFor(p);
+                default -> null;
+            };
+            case Type.Delegated delegated when delegated.kind() != Kind.POINTER ->
+                    heapArrayElementTypeFor(delegated.type());
+            default -> null;
+        };
+    }
+
+    /**
+     * {@return {@code true} if String overloads should be generated for the given function type} That is, if
+     * some of its parameters are pointers to {@code const char}, and if it does not return a pointer (which could
+     * point into the strings, whose memory is reused once the overload returns).
+     */
+    static boolean needsStringOverload(Function type) {
+        return type.argumentTypes().stream().anyMatch(Utils::isConstCharPointer) && !isPointer(type.returnType());
+    }
+
+    /**
+     * {@return {@code true} if the given type is a pointer to {@code const char}, so that a Java string can be
+     * passed in its place} Pointers to non-const {@code char} are excluded, as the function may write to them
+     * (e.g. an output buffer).
+     */
+    static boolean isConstCharPointer(Type type) {
+        return switch (type) {
+            case Type.Delegated delegated when delegated.kind() == Kind.TYPEDEF -> isConstCharPointer(delegated.type());
+            case TypeImpl.PointerImpl pointer -> pointer.isPointeeConst() && isChar(pointer.type());
+            default -> false;
+        };
+    }
+
+    private static boolean isChar(Type type) {
+        return switch (type) {
+            case Type.Primitive p -> p.kind() == Type.Primitive.Kind.Char;
+            case Type.Delegated delegated when delegated.kind() == Kind.TYPEDEF -> isChar(delegated.type());
+            default -> false;
+        };
+    }
+
     static Function getAsFunctionPointer(Type type) {
         return switch (type) {
             case Type.Delegated delegated when delegated.kind() == Kind.POINTER -> getAsFunctionPointer(delegated.type());
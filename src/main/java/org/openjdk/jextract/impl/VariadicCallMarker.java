@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.openjdk.jextract.impl;
+
+import org.openjdk.jextract.Declaration;
+import org.openjdk.jextract.Type;
+import org.openjdk.jextract.impl.DeclarationImpl.VariadicCalls;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/*
+ * This visitor attaches to variadic functions the shapes of the calls for which typed wrappers
+ * should be generated, based on the --variadic-call options specified, e.g.
+ *
+ * --variadic-call printf(int,double)
+ */
+public final class VariadicCallMarker implements Declaration.Visitor<Void, Declaration> {
+
+    private final Map<String, List<List<Type>>> variadicCalls;
+
+    public VariadicCallMarker(List<Options.VariadicCall> variadicCalls) {
+        this.variadicCalls = variadicCalls.stream()
+                .collect(Collectors.groupingBy(Options.VariadicCall::function, LinkedHashMap::new,
+                        Collectors.mapping(call -> call.argTypes().stream().map(VariadicCallMarker::argType).toList(),
+                                Collectors.toList())));
+    }
+
+    public Declaration.Scoped scan(Declaration.Scoped header) {
+        if (!variadicCalls.isEmpty()) {
+            header.members().forEach(fieldTree -> fieldTree.accept(this, null));
+        }
+        return header;
+    }
+
+    @Override
+    public Void visitFunction(Declaration.Function funcTree, Declaration parent) {
+        List<List<Type>> argTypes = variadicCalls.get(funcTree.name());
+        if (argTypes != null && funcTree.type().varargs()) {
+            VariadicCalls.with(funcTree, argTypes);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitDeclaration(Declaration decl, Declaration parent) {
+        return null;
+    }
+
+    // variadic arguments are subject to default argument promotions, so only a few types are allowed. Argument
+    // types have been normalized when parsed, e.g. qualifiers have been dropped, so "const char*" is "char*"
+    private static Type argType(String argType) {
+        return switch (argType) {
+            case "int" -> Type.primitive(Type.Primitive.Kind.Int);
+            case "long" -> Type.primitive(Type.Primitive.Kind.Long);
+            case "long long" -> Type.primitive(Type.Primitive.Kind.LongLong);
+            case "double" -> Type.primitive(Type.Primitive.Kind.Double);
+            // as qualifiers have been dropped, char pointers may be written to (e.g. by sscanf), so no strings
+            // can be passed in their place
+            default -> Type.pointer(Type.void_());
+        };
+    }
+}
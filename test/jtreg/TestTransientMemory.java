@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.openjdk.jextract.clang.Cursor;
+import org.openjdk.jextract.clang.Index;
+import org.openjdk.jextract.clang.LibClang;
+import org.openjdk.jextract.clang.TranslationUnit;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+/*
+ * @test
+ * @summary check that structs returned by libclang queries in a transient scope do not accumulate
+ * @requires os.family == "linux"
+ * @modules org.openjdk.jextract/org.openjdk.jextract.clang
+ * @run testng/othervm -Xms128m -Xmx128m -XX:+AlwaysPreTouch TestTransientMemory
+ */
+public class TestTransientMemory {
+    private static final int STRUCTS = 2000;
+    private static final int FIELDS = 4;
+    private static final int ROUNDS = 20;
+    // without transient scopes, the visits below allocate about 30M of native memory
+    private static final long MAX_RSS_GROWTH = 8 * 1024 * 1024;
+
+    @Test
+    public void testTransientMemory() throws IOException {
+        try (Index index = LibClang.createIndex(false);
+             TranslationUnit tu = index.parse("synthetic.h", syntheticHeader(), false)) {
+            Cursor root = tu.getCursor();
+            // first visit allocates the slab
+            visit(tu, root);
+            long rss = rss();
+            for (int i = 0; i < ROUNDS; i++) {
+                visit(tu, root);
+            }
+            long growth = rss() - rss;
+            assertTrue(growth < MAX_RSS_GROWTH, "RSS grew by " + growth + " bytes");
+        }
+    }
+
+    private static void visit(TranslationUnit tu, Cursor root) {
+        root.forEach(c -> {
+            try (var scope = tu.transientScope()) {
+                c.forEach(field -> {
+                    field.type().canonicalType();
+                    field.getSourceLocation();
+                    field.getExtent();
+                });
+            }
+        });
+    }
+
+    private static String syntheticHeader() {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < STRUCTS; i++) {
+            buf.append("struct S").append(i).append(" {\n");
+            for (int j = 0; j < FIELDS; j++) {
+                buf.append("    int f").append(j).append(";\n");
+            }
+            buf.append("};\n");
+        }
+        return buf.toString();
+    }
+
+    private static long rss() throws IOException {
+        for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+            if (line.startsWith("VmRSS:")) {
+                // e.g. "VmRSS:    123456 kB"
+                String[] parts = line.split("\\s+");
+                return Long.parseLong(parts[1]) * 1024;
+            }
+        }
+        throw new AssertionError("VmRSS not found");
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Repeatedly calls a function declared in handle_tables_startup.h, using the bindings in the package named
+ * by the {@code bindings} system property, and prints the average cost of a call once the calls have been
+ * compiled by the JIT compiler.
+ */
+public class HandleTablesCallCost {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 5;
+    private static final int CALLS = 10_000_000;
+
+    // a constant, so that the JIT compiler can inline the generated wrapper into the loop
+    private static final MethodHandle F10;
+
+    static {
+        try {
+            Class<?> headerClass = Class.forName(System.getProperty("bindings") + ".handle_tables_startup_h");
+            F10 = MethodHandles.publicLookup().findStatic(headerClass, "f10",
+                    MethodType.methodType(int.class, int.class));
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    public static void main(String[] args) throws Throwable {
+        // f10(x) returns x + 10
+        int expected = 0;
+        for (int i = 0; i < CALLS; i++) {
+            expected += i + 10;
+        }
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            check(calls(), expected);
+        }
+        // the fastest round is the least affected by noise (e.g. GC, or other processes)
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            int sum = calls();
+            best = Math.min(best, System.nanoTime() - start);
+            check(sum, expected);
+        }
+        System.out.println("picos per call: " + best * 1000 / CALLS);
+    }
+
+    private static int calls() throws Throwable {
+        int sum = 0;
+        for (int i = 0; i < CALLS; i++) {
+            sum += (int)F10.invokeExact(i);
+        }
+        return sum;
+    }
+
+    private static void check(int sum, int expected) {
+        if (sum != expected) {
+            throw new AssertionError("unexpected sum: " + sum);
+        }
+    }
+}
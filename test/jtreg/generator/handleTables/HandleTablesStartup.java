@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Calls all the functions declared in handle_tables_startup.h, using the bindings in the given package,
+ * and prints how long it took (starting from the initialization of the header class).
+ */
+public class HandleTablesStartup {
+    static final int FIRST_FUNCTION = 10;
+    static final int LAST_FUNCTION = 209;
+
+    public static void main(String[] args) throws Throwable {
+        long start = System.nanoTime();
+        Class<?> headerClass = Class.forName(args[0] + ".handle_tables_startup_h");
+        MethodType type = MethodType.methodType(int.class, int.class);
+        for (int i = FIRST_FUNCTION; i <= LAST_FUNCTION; i++) {
+            MethodHandle function = MethodHandles.publicLookup().findStatic(headerClass, "f" + i, type);
+            int result = (int)function.invokeExact(1);
+            if (result != i + 1) {
+                throw new AssertionError("f" + i + "(1) returned " + result);
+            }
+        }
+        System.out.println("elapsed: " + (System.nanoTime() - start) / 1_000_000);
+    }
+}
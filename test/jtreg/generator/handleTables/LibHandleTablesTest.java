@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static test.jextract.handletables.handle_tables_h.*;
+import test.jextract.handletables.*;
+
+/*
+ * @test
+ * @summary functions, variables and constants can be used through handle tables
+ * @library /lib
+ * @build testlib.TestUtils
+ * @run main/othervm JtregJextract -l HandleTables --use-system-load-library --handle-tables -t test.jextract.handletables handle_tables.h
+ * @build LibHandleTablesTest
+ * @run testng/othervm --enable-native-access=ALL-UNNAMED LibHandleTablesTest
+ */
+public class LibHandleTablesTest {
+    @Test
+    public void testFunctions() {
+        assertEquals(add(40, 2), 42);
+        reset();
+        increment();
+        increment();
+        assertEquals(counter(), 2);
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment pair = make_pair(arena, 1, 2);
+            assertEquals(Pair.first(pair), 1);
+            assertEquals(Pair.second(pair), 2);
+        }
+    }
+
+    @Test
+    public void testVariables() {
+        counter(41);
+        increment();
+        assertEquals(counter(), 42);
+        assertEquals(values(2), 3);
+        values(2, 4);
+        assertEquals(values().getAtIndex(C_INT, 2), 4);
+    }
+
+    @Test
+    public void testConcurrentInitialization() {
+        // all the threads observe the same string constant, which is only allocated once
+        List<MemorySegment> greetings = IntStream.range(0, 64).parallel()
+                .mapToObj(_ -> GREETING())
+                .toList();
+        for (MemorySegment greeting : greetings) {
+            assertEquals(greeting.getString(0), "hello");
+            assertEquals(greeting.address(), greetings.get(0).address());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/*
+ * @test
+ * @summary compare the steady-state cost of calls through holder classes and handle tables
+ * @library /lib
+ * @build testlib.TestUtils
+ * @run main/othervm JtregJextract -l HandleTablesStartup --use-system-load-library --critical-function f10 -t test.jextract.callcost.holders handle_tables_startup.h
+ * @run main/othervm JtregJextract -l HandleTablesStartup --use-system-load-library --critical-function f10 --handle-tables -t test.jextract.callcost.tables handle_tables_startup.h
+ * @run main/othervm JtregJextract -l HandleTablesStartup --use-system-load-library --critical-function f10 --handle-tables --shared-downcall-handles -t test.jextract.callcost.shared handle_tables_startup.h
+ * @build HandleTablesCallCost TestHandleTablesCallCost
+ * @run testng/othervm --enable-native-access=ALL-UNNAMED TestHandleTablesCallCost
+ */
+public class TestHandleTablesCallCost {
+
+    @Test
+    public void testCallCost() throws Exception {
+        // f10 is linked as a critical function, so that the cost of the call itself does not hide
+        // the cost of looking up the downcall handle
+        long holders = callCost("test.jextract.callcost.holders");
+        long tables = callCost("test.jextract.callcost.tables");
+        long shared = callCost("test.jextract.callcost.shared");
+        System.out.printf("holder classes: %d ps per call%n", holders);
+        System.out.printf("handle tables: %d ps per call%n", tables);
+        System.out.printf("handle tables with shared downcall handles: %d ps per call%n", shared);
+        // timings are only reported, as they are too noisy to be checked
+        assertTrue(holders > 0 && tables > 0 && shared > 0);
+    }
+
+    // runs HandleTablesCallCost in a new VM, so that each run only compiles the bindings it uses
+    private static long callCost(String packageName) throws IOException, InterruptedException {
+        List<String> command = List.of(
+                Path.of(System.getProperty("test.jdk"), "bin", "java").toString(),
+                "--enable-preview",
+                "--enable-native-access=ALL-UNNAMED",
+                "-Djava.library.path=" + System.getProperty("java.library.path"),
+                "-Dbindings=" + packageName,
+                "-cp", System.getProperty("test.class.path"),
+                "HandleTablesCallCost");
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        List<String> output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8)
+                .lines().toList();
+        assertEquals(process.waitFor(), 0, String.join("\n", output));
+        return output.stream()
+                .filter(line -> line.startsWith("picos per call: "))
+                .mapToLong(line -> Long.parseLong(line.substring("picos per call: ".length())))
+                .findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/*
+ * @test
+ * @summary compare the startup of bindings using holder classes and handle tables
+ * @library /lib
+ * @build testlib.TestUtils
+ * @run main/othervm JtregJextract -l HandleTablesStartup --use-system-load-library -t test.jextract.startup.holders handle_tables_startup.h
+ * @run main/othervm JtregJextract -l HandleTablesStartup --use-system-load-library --handle-tables -t test.jextract.startup.tables handle_tables_startup.h
+ * @build HandleTablesStartup TestHandleTablesStartup
+ * @run testng/othervm --enable-native-access=ALL-UNNAMED TestHandleTablesStartup
+ */
+public class TestHandleTablesStartup {
+
+    // the number of generated classes loaded by a run, and how long it took to call all the functions
+    record Startup(long loadedClasses, long elapsedMillis) { }
+
+    @Test
+    public void testStartup() throws Exception {
+        Startup holders = startup("test.jextract.startup.holders");
+        Startup tables = startup("test.jextract.startup.tables");
+        System.out.printf("holder classes: %d classes loaded, %d ms%n", holders.loadedClasses(), holders.elapsedMillis());
+        System.out.printf("handle tables: %d classes loaded, %d ms%n", tables.loadedClasses(), tables.elapsedMillis());
+        // timings are only reported, as they are too noisy to be checked, but each function called
+        // through holder classes loads a holder class, while handle tables load no class per function
+        int functions = HandleTablesStartup.LAST_FUNCTION - HandleTablesStartup.FIRST_FUNCTION + 1;
+        assertTrue(holders.loadedClasses() > functions);
+        assertTrue(tables.loadedClasses() + functions <= holders.loadedClasses());
+    }
+
+    // runs HandleTablesStartup in a new VM, so that the bindings are initialized from scratch
+    private static Startup startup(String packageName) throws IOException, InterruptedException {
+        List<String> command = List.of(
+                Path.of(System.getProperty("test.jdk"), "bin", "java").toString(),
+                "--enable-preview",
+                "--enable-native-access=ALL-UNNAMED",
+                "-Djava.library.path=" + System.getProperty("java.library.path"),
+                "-Xlog:class+load=info",
+                "-cp", System.getProperty("test.class.path"),
+                "HandleTablesStartup", packageName);
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        List<String> output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8)
+                .lines().toList();
+        assertEquals(process.waitFor(), 0, String.join("\n", output));
+        long loadedClasses = output.stream()
+                .filter(line -> line.contains(" " + packageName + "."))
+                .count();
+        long elapsedMillis = output.stream()
+                .filter(line -> line.startsWith("elapsed: "))
+                .mapToLong(line -> Long.parseLong(line.substring("elapsed: ".length())))
+                .findFirst().orElseThrow();
+        return new Startup(loadedClasses, elapsedMillis);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static test.jextract.heaparrays.heap_array_overloads_h.*;
+
+/*
+ * @test
+ * @summary critical functions can be called with heap arrays
+ * @library /lib
+ * @build testlib.TestUtils
+ * @run main/othervm JtregJextract -l HeapArrayOverloads --use-system-load-library --critical-function scale --critical-function sum_longs --critical-function count_char -t test.jextract.heaparrays heap_array_overloads.h
+ * @build LibHeapArrayOverloadsTest
+ * @run testng/othervm --enable-native-access=ALL-UNNAMED LibHeapArrayOverloadsTest
+ */
+public class LibHeapArrayOverloadsTest {
+    @Test
+    public void testReadArrays() {
+        assertEquals(dot(new double[] { 1, 2, 3 }, new double[] { 4, 5, 6 }, 3), 32d);
+        assertEquals(sum_longs(new long[] { 1L << 40, 2, 3 }, 3), (1L << 40) + 5);
+        byte[] str = "hello world".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(count_char(str, str.length, (byte)'o'), 2);
+    }
+
+    @Test
+    public void testWriteArray() {
+        int[] values = { 1, 2, 3 };
+        scale(values, values.length, 10);
+        assertEquals(values, new int[] { 10, 20, 30 });
+    }
+
+    @Test
+    public void testNativeSegments() {
+        // the overloads taking segments can still be called with native segments
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment x = arena.allocateFrom(C_DOUBLE, 1, 2, 3);
+            MemorySegment y = arena.allocateFrom(C_DOUBLE, 4, 5, 6);
+            assertEquals(dot(x, y, 3), 32d);
+            MemorySegment values = arena.allocateFrom(C_INT, 1, 2, 3);
+            scale(values, 3, 10);
+            assertEquals(values.getAtIndex(C_INT, 2), 30);
+        }
+    }
+}
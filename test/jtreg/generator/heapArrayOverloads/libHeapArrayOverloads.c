@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+#include "heap_array_overloads.h"
+
+EXPORT double dot(const double* x, const double* y, int n) {
+    double result = 0;
+    for (int i = 0; i < n; i++) {
+        result += x[i] * y[i];
+    }
+    return result;
+}
+
+EXPORT void scale(int* values, int n, int factor) {
+    for (int i = 0; i < n; i++) {
+        values[i] *= factor;
+    }
+}
+
+EXPORT long long sum_longs(const long long* values, int n) {
+    long long result = 0;
+    for (int i = 0; i < n; i++) {
+        result += values[i];
+    }
+    return result;
+}
+
+EXPORT int count_char(const char* str, int n, char c) {
+    int count = 0;
+    for (int i = 0; i < n; i++) {
+        if (str[i] == c) {
+            count++;
+        }
+    }
+    return count;
+}
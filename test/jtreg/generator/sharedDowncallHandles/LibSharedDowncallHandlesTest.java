@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static test.jextract.shareddowncallhandles.shared_downcall_handles_h.*;
+import test.jextract.shareddowncallhandles.*;
+
+/*
+ * @test
+ * @summary functions which share downcall handles can be called
+ * @library /lib
+ * @build testlib.TestUtils
+ * @run main/othervm JtregJextract -l SharedDowncallHandles --use-system-load-library --shared-downcall-handles -t test.jextract.shareddowncallhandles shared_downcall_handles.h
+ * @build LibSharedDowncallHandlesTest
+ * @run testng/othervm --enable-native-access=ALL-UNNAMED LibSharedDowncallHandlesTest
+ */
+public class LibSharedDowncallHandlesTest {
+    @Test
+    public void testIntFunctions() throws Throwable {
+        assertEquals(add(40, 2), 42);
+        assertEquals(sub(40, 2), 38);
+        // the handles are bound to the address of each function
+        assertEquals((int)add$handle().invokeExact(1, 2), 3);
+        assertEquals((int)sub$handle().invokeExact(1, 2), -1);
+        // the bound handles are only created once
+        assertSame(add$handle(), add$handle());
+    }
+
+    @Test
+    public void testVoidFunctions() {
+        reset();
+        increment();
+        increment();
+        assertEquals(get_count(), 2);
+        reset();
+        assertEquals(get_count(), 0);
+    }
+
+    @Test
+    public void testStructFunctions() {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment pair = make_pair(arena, 1, 2);
+            assertEquals(Pair.first(pair), 1);
+            assertEquals(Pair.second(pair), 2);
+            MemorySegment swapped = swap_pair(arena, pair);
+            assertEquals(Pair.first(swapped), 2);
+            assertEquals(Pair.second(swapped), 1);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+#include "shared_downcall_handles.h"
+
+static int count;
+
+EXPORT int add(int a, int b) {
+    return a + b;
+}
+
+EXPORT int sub(int a, int b) {
+    return a - b;
+}
+
+EXPORT void reset(void) {
+    count = 0;
+}
+
+EXPORT void increment(void) {
+    count++;
+}
+
+EXPORT int get_count(void) {
+    return count;
+}
+
+EXPORT Pair make_pair(int first, int second) {
+    Pair pair = { first, second };
+    return pair;
+}
+
+EXPORT Pair swap_pair(Pair pair) {
+    return make_pair(pair.second, pair.first);
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static test.jextract.strings.string_overloads_h.*;
+import test.jextract.strings.*;
+
+/*
+ * @test
+ * @summary functions taking C strings can be called with Java strings
+ * @library /lib
+ * @build testlib.TestUtils
+ * @run main/othervm JtregJextract -l StringOverloads --use-system-load-library -t test.jextract.strings string_overloads.h
+ * @build LibStringOverloadsTest
+ * @run testng/othervm --enable-native-access=ALL-UNNAMED LibStringOverloadsTest
+ */
+public class LibStringOverloadsTest {
+    @Test
+    public void testStrings() {
+        assertEquals(string_length("hello"), 5);
+        assertEquals(string_length(""), 0);
+        assertEquals(compare("abc", "abd"), -1);
+        assertEquals(compare("abc", "abc"), 0);
+        assertEquals(is_null((String)null), 1);
+        assertEquals(is_null("null"), 0);
+    }
+
+    @Test
+    public void testLargeStrings() {
+        // larger than the initial scratch buffer, and encoded with more than one byte per char
+        String str = "é".repeat(1000);
+        assertEquals(string_length(str), str.getBytes(StandardCharsets.UTF_8).length);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(compare(str + i, str + i), 0);
+        }
+    }
+
+    @Test
+    public void testReentrantCalls() {
+        try (Arena arena = Arena.ofConfined()) {
+            // the callback converts strings while the strings of the outer call are still in use
+            MemorySegment cb = str_callback.allocate(str ->
+                    string_length(str.reinterpret(Long.MAX_VALUE).getString(0) + "!"), arena);
+            assertEquals(call_twice(cb, "abc", "de"), 4 + 3);
+        }
+    }
+
+    @Test
+    public void testOutputBuffer() {
+        try (Arena arena = Arena.ofConfined()) {
+            // the destination is not a const char pointer, so it is still passed as a segment
+            MemorySegment dest = arena.allocate(16);
+            copy_string(dest, "hello");
+            assertEquals(dest.getString(0), "hello");
+        }
+    }
+
+    @Test
+    public void testPointerResult() {
+        try (Arena arena = Arena.ofConfined()) {
+            // no string overload, as the result points into the strings passed to the function
+            MemorySegment str = arena.allocateFrom("hello world");
+            MemorySegment found = find_string(str, arena.allocateFrom("world"));
+            assertEquals(found.address(), str.address() + 6);
+        }
+    }
+
+    @Test
+    public void testFunctionPointer() {
+        assertEquals(str_callback.invoke(length_callback(), "hello"), 5);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+#include <string.h>
+
+#include "string_overloads.h"
+
+EXPORT int string_length(const char* str) {
+    return (int)strlen(str);
+}
+
+EXPORT int compare(const char* a, const char* b) {
+    int result = strcmp(a, b);
+    return result < 0 ? -1 : result > 0 ? 1 : 0;
+}
+
+EXPORT int is_null(const char* str) {
+    return str == NULL;
+}
+
+EXPORT int call_twice(str_callback cb, const char* a, const char* b) {
+    return cb(a) + cb(b);
+}
+
+EXPORT str_callback length_callback(void) {
+    return string_length;
+}
+
+EXPORT void copy_string(char* dest, const char* src) {
+    strcpy(dest, src);
+}
+
+EXPORT const char* find_string(const char* str, const char* sub) {
+    return strstr(str, sub);
+}
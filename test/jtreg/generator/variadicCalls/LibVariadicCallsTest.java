@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static test.jextract.variadiccalls.variadic_calls_h.*;
+
+/*
+ * @test
+ * @summary typed wrappers of variadic functions can be called
+ * @library /lib
+ * @build testlib.TestUtils
+ * @run main/othervm JtregJextract -l VariadicCalls --use-system-load-library --variadic-call sum_ints(int,int,int) --variadic-call sum_ints() --variadic-call average(double,double) --variadic-call total_length(char*,char*) --variadic-call format(int,double) -t test.jextract.variadiccalls variadic_calls.h
+ * @build LibVariadicCallsTest
+ * @run testng/othervm --enable-native-access=ALL-UNNAMED LibVariadicCallsTest
+ */
+public class LibVariadicCallsTest {
+    @Test
+    public void testPrimitiveArguments() {
+        assertEquals(sum_ints(3, 1, 2, 3), 6);
+        assertEquals(sum_ints(0), 0);
+        assertEquals(average(2, 1.0, 2.0), 1.5);
+    }
+
+    @Test
+    public void testPointerArguments() {
+        try (Arena arena = Arena.ofConfined()) {
+            assertEquals(total_length(2, arena.allocateFrom("abcd"), arena.allocateFrom("e")), 5);
+        }
+    }
+
+    @Test
+    public void testMixedArguments() {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment buf = arena.allocate(64);
+            int length = format(buf, (int)buf.byteSize(), arena.allocateFrom("%d-%.1f"), 42, 1.5);
+            assertEquals(length, 6);
+            assertEquals(buf.getString(0), "42-1.5");
+            // the format can be passed as a string, but not the (non-const) buffer
+            length = format(buf, (int)buf.byteSize(), "%d+%.1f", 7, 0.5);
+            assertEquals(length, 5);
+            assertEquals(buf.getString(0), "7+0.5");
+        }
+    }
+}
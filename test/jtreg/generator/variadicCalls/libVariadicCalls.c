@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+#include <stdarg.h>
+#include <stdio.h>
+#include <string.h>
+
+#include "variadic_calls.h"
+
+EXPORT int sum_ints(int count, ...) {
+    va_list args;
+    va_start(args, count);
+    int result = 0;
+    for (int i = 0; i < count; i++) {
+        result += va_arg(args, int);
+    }
+    va_end(args);
+    return result;
+}
+
+EXPORT double average(int count, ...) {
+    va_list args;
+    va_start(args, count);
+    double result = 0;
+    for (int i = 0; i < count; i++) {
+        result += va_arg(args, double);
+    }
+    va_end(args);
+    return count == 0 ? 0 : result / count;
+}
+
+EXPORT int total_length(int count, ...) {
+    va_list args;
+    va_start(args, count);
+    int result = 0;
+    for (int i = 0; i < count; i++) {
+        result += (int)strlen(va_arg(args, const char*));
+    }
+    va_end(args);
+    return result;
+}
+
+EXPORT int format(char* buf, int size, const char* fmt, ...) {
+    va_list args;
+    va_start(args, fmt);
+    int result = vsnprintf(buf, size, fmt, args);
+    va_end(args);
+    return result;
+}
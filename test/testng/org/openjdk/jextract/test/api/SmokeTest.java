@@ -27,6 +27,9 @@ import org.openjdk.jextract.Type;
 import org.testng.annotations.Test;
 import testlib.JextractApiTestBase;
 
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
 public class SmokeTest extends JextractApiTestBase {
 
     @Test
@@ -40,4 +43,15 @@ public class SmokeTest extends JextractApiTestBase {
         checkFunction(d, "pointers", ch_ptr_ptr.type(), ch_ptr_ptr.type(), ch_ptr_ptr.type());
         checkConstant(d, "ZERO", intType, 0L);
     }
+
+    @Test
+    public void testPositions() {
+        Declaration.Scoped d = parse("smoke.h");
+        Declaration.Scoped pointDecl = checkStruct(d, "Point", "x", "y");
+        Declaration.Function distance = findDecl(d, "distance", Declaration.Function.class);
+        // positions in the same file share the same (absolute) path
+        assertTrue(pointDecl.pos().path().isAbsolute());
+        assertSame(pointDecl.pos().path(), distance.pos().path());
+        assertSame(pointDecl.pos().path(), pointDecl.members().get(0).pos().path());
+    }
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.openjdk.jextract.test.api;
+
+import org.openjdk.jextract.Declaration;
+import org.testng.annotations.Test;
+import testlib.JextractApiTestBase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.testng.Assert.assertEquals;
+
+public class TestConcurrentParse extends JextractApiTestBase {
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 4;
+    private static final String[] HEADERS = { "smoke.h", "testTypedef.h", "nestedbitfields.h" };
+
+    @Test
+    public void testConcurrentParse() throws Exception {
+        // parse each header serially first, to obtain the expected trees
+        List<String> expected = new ArrayList<>();
+        for (String header : HEADERS) {
+            expected.add(parse(header).toString());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> results = new ArrayList<>();
+            List<String> expectedResults = new ArrayList<>();
+            for (int i = 0; i < THREADS * ITERATIONS; i++) {
+                int index = i % HEADERS.length;
+                Callable<String> task = () -> {
+                    start.await();
+                    Declaration.Scoped root = parse(HEADERS[index]);
+                    return root.toString();
+                };
+                results.add(executor.submit(task));
+                expectedResults.add(expected.get(index));
+            }
+            start.countDown();
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(results.get(i).get(), expectedResults.get(i));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
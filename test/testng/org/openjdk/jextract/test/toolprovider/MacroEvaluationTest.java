@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.openjdk.jextract.test.toolprovider;
+
+import java.lang.foreign.MemorySegment;
+import testlib.TestUtils;
+import org.testng.annotations.AfterTest;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+import testlib.JextractToolRunner;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+public class MacroEvaluationTest extends JextractToolRunner {
+    private Class<?> constants;
+    private Path dirPath;
+    private TestUtils.Loader loader;
+
+    @BeforeTest
+    public void setup() {
+        dirPath = getOutputFilePath("MacroEvaluationTest_output");
+        runAndCompile(dirPath, getInputFilePath("macro_evaluation.h").toString());
+        loader = TestUtils.classLoader(dirPath);
+        constants = loader.loadClass("macro_evaluation_h");
+    }
+
+    @AfterTest
+    public void cleanup() {
+        constants = null;
+        loader.close();
+        TestUtils.deleteDir(dirPath);
+    }
+
+    @Test(dataProvider = "evaluatedConstants")
+    public void checkConstantsTypesAndValues(String name, Class<?> type, Consumer<Object> checker) throws ReflectiveOperationException {
+        var f = findMethod(constants, name);
+        assertNotNull(f);
+        assertSame(f.getReturnType(), type);
+        Object actual = f.invoke(null);
+        checker.accept(actual);
+    }
+
+    @DataProvider
+    public static Object[][] evaluatedConstants() {
+        return new Object[][] {
+                { "SHIFTED", int.class, equalsTo(16) },
+                { "SIGN_BIT", int.class, equalsTo(Integer.MIN_VALUE) },
+                { "HEX_UNSIGNED", int.class, equalsTo(-1) },
+                { "DEC_LONG", long.class, equalsTo(4294967296L) },
+                { "ULL_MAX", long.class, equalsTo(-1L) },
+                { "FLAGS", int.class, equalsTo(7) },
+                { "MASK", int.class, equalsTo(-1) },
+                { "UNSIGNED_DIV", int.class, equalsTo(Integer.MAX_VALUE) },
+                { "MIXED_SIGN", int.class, equalsTo(0) },
+                { "CHAR_ESCAPE", int.class, equalsTo(10) },
+                { "CHAR_OCTAL", int.class, equalsTo(65) },
+                { "FLOAT_SUM", float.class, equalsTo(3.75f) },
+                { "DOUBLE_MIX", double.class, equalsTo(1.5d) },
+                { "HEX_FLOAT", double.class, equalsTo(0.25d) },
+                { "TERNARY", long.class, equalsTo(10L) },
+                { "NOT_FLAGS", int.class, equalsTo(0) },
+                { "CAST_SHORT", short.class, equalsTo((short)1) },
+                { "CAST_INT", int.class, equalsTo(2) },
+                { "CONCAT", MemorySegment.class, equalsToJavaStr("Hello World") },
+                { "FWD_SUM", int.class, equalsTo(82) },
+                { "ENUM_BASED", int.class, equalsTo(2) },
+                { "ENUM_CHAIN", int.class, equalsTo(4) },
+                { "AFTER_BRACE", int.class, equalsTo(5) },
+                { "REDEF_B", int.class, equalsTo(2) },
+                { "REDEF_C", int.class, equalsTo(3) },
+        };
+    }
+
+    @Test
+    public void checkMissingConstants() {
+        assertNull(findMethod(constants, "OPEN_BRACE"));
+        assertNull(findMethod(constants, "UNDEF_B"));
+        assertNull(findMethod(constants, "UNDEF_C"));
+        assertNull(findMethod(constants, "UNDEF_SELF"));
+        assertNull(findMethod(constants, "FUNC_B"));
+    }
+
+    static Consumer<Object> equalsTo(Object expected) {
+        return actual -> assertEquals(actual, expected);
+    }
+
+    static Consumer<MemorySegment> equalsToJavaStr(String expected) {
+        return actual -> assertEquals(actual.getString(0), expected);
+    }
+}
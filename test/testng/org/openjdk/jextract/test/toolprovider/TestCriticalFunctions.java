@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.openjdk.jextract.test.toolprovider;
+
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+import testlib.TestUtils;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestCriticalFunctions extends JextractToolRunner {
+
+    @Test
+    public void testCriticalFunctions() throws IOException {
+        Path output = getOutputFilePath("TestCriticalFunctions");
+        Path header = getInputFilePath("critical.h");
+        run(output, "--critical-function", "hash", header.toString()).checkSuccess();
+        try {
+            String source = Files.readString(output.resolve("critical_h.java"));
+            assertTrue(isCritical(source, "get_x")); // annotated
+            assertTrue(isCritical(source, "hash")); // --critical-function
+            assertFalse(isCritical(source, "plain"));
+            try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+                Class<?> headerClass = loader.loadClass("critical_h");
+                assertNotNull(headerClass);
+                // wrappers are the same as for other functions
+                assertNotNull(findMethod(headerClass, "get_x", int.class));
+                assertNotNull(findMethod(headerClass, "hash", int.class));
+                assertNotNull(findMethod(headerClass, "plain", int.class));
+            }
+        } finally {
+            TestUtils.deleteDir(output);
+        }
+    }
+
+    @Test
+    public void testHeapArrayOverloads() throws IOException {
+        Path output = getOutputFilePath("TestHeapArrayOverloads");
+        Path header = getInputFilePath("critical.h");
+        run(output, header.toString()).checkSuccess();
+        try {
+            String source = Files.readString(output.resolve("critical_h.java"));
+            // heap access is only allowed if there are array overloads
+            assertTrue(isCritical(source, "dot", true));
+            assertTrue(isCritical(source, "get_x", false));
+            try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+                Class<?> headerClass = loader.loadClass("critical_h");
+                assertNotNull(headerClass);
+                assertNotNull(findMethod(headerClass, "dot", MemorySegment.class, MemorySegment.class, int.class));
+                assertNotNull(findMethod(headerClass, "dot", double[].class, double[].class, int.class));
+                assertNotNull(findMethod(headerClass, "plain_dot", MemorySegment.class, MemorySegment.class, int.class));
+                assertNull(findMethod(headerClass, "plain_dot", double[].class, double[].class, int.class));
+            }
+        } finally {
+            TestUtils.deleteDir(output);
+        }
+    }
+
+    // is the downcall handle in the holder class of the given function linked as critical?
+    private static boolean isCritical(String source, String function) {
+        return isCritical(source, function, false);
+    }
+
+    private static boolean isCritical(String source, String function, boolean allowHeapAccess) {
+        Matcher m = Pattern.compile("private static class " + function + " \\{(.*?)\\n    \\}", Pattern.DOTALL)
+                .matcher(source);
+        assertTrue(m.find(), "Holder class not found: " + function);
+        return m.group(1).contains("Linker.Option.critical(" + allowHeapAccess + ")");
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.openjdk.jextract.test.toolprovider;
+
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+import testlib.TestUtils;
+
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+
+public class TestHandleTables extends JextractToolRunner {
+
+    @Test
+    public void testHandleTables() throws ReflectiveOperationException {
+        Path output = getOutputFilePath("TestHandleTables");
+        Path header = getInputFilePath("handle_tables.h");
+        run(output, "--handle-tables", header.toString()).checkSuccess();
+        try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+            Class<?> headerClass = loader.loadClass("handle_tables_h");
+            assertNotNull(headerClass);
+            // no holder classes
+            assertEquals(headerClass.getDeclaredClasses().length, 0);
+            assertEquals(findDescriptor(headerClass, "add"), findDescriptor(headerClass, "sub"));
+            assertNotNull(findDescriptor(headerClass, "reset"));
+            assertNotNull(findMethod(headerClass, "add", int.class, int.class));
+            assertNotNull(findMethod(headerClass, "counter"));
+            assertNotNull(findMethod(headerClass, "counter", int.class));
+            Method matrixLayout = findMethod(headerClass, "matrix$layout");
+            assertEquals(((MemoryLayout)matrixLayout.invoke(null)).byteSize(), 6 * Double.BYTES);
+            Method matrixDims = findMethod(headerClass, "matrix$dimensions");
+            assertEquals((long[])matrixDims.invoke(null), new long[] { 2, 3 });
+            Method greeting = findMethod(headerClass, "GREETING");
+            assertEquals(((MemorySegment)greeting.invoke(null)).getString(0), "hello");
+        } finally {
+            TestUtils.deleteDir(output);
+        }
+    }
+}
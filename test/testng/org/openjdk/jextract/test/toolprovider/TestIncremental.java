@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.openjdk.jextract.test.toolprovider;
+
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+import testlib.TestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestIncremental extends JextractToolRunner {
+
+    private static final String MANIFEST = ".jextract.manifest";
+    // an arbitrary modification time, which only changes if a file is written
+    private static final FileTime OLD_TIME = FileTime.fromMillis(1_000_000_000L);
+
+    @Test
+    public void testIncremental() throws IOException {
+        Path input = getOutputFilePath("TestIncremental_input");
+        Path output = getOutputFilePath("TestIncremental");
+        try {
+            Files.createDirectories(input);
+            Path header = input.resolve("incremental.h");
+            Files.write(header, List.of(
+                    "struct Point { int x; int y; };",
+                    "int incremental_func(int);"));
+            Path headerClass = output.resolve("incremental_h.java");
+            Path pointClass = output.resolve("Point.java");
+
+            run(output, "--incremental", header.toString()).checkSuccess();
+            assertTrue(Files.exists(output.resolve(MANIFEST)));
+            assertTrue(Files.exists(headerClass));
+            assertTrue(Files.exists(pointClass));
+
+            // nothing has changed, nothing is written
+            touchAll(output);
+            run(output, "--incremental", header.toString()).checkSuccess();
+            assertEquals(Files.getLastModifiedTime(headerClass), OLD_TIME);
+            assertEquals(Files.getLastModifiedTime(pointClass), OLD_TIME);
+            assertEquals(Files.getLastModifiedTime(output.resolve(MANIFEST)), OLD_TIME);
+
+            // a new function only changes the header class
+            Files.write(header, List.of(
+                    "struct Point { int x; int y; };",
+                    "int incremental_func(int);",
+                    "int incremental_func2(int);"));
+            run(output, "--incremental", header.toString()).checkSuccess();
+            assertNotEquals(Files.getLastModifiedTime(headerClass), OLD_TIME);
+            assertEquals(Files.getLastModifiedTime(pointClass), OLD_TIME);
+            assertTrue(Files.readString(headerClass).contains("incremental_func2"));
+
+            // different options generate a different set of files
+            run(output, "--incremental", "-t", "incr", header.toString()).checkSuccess();
+            assertTrue(Files.exists(output.resolve("incr").resolve("Point.java")));
+            // files generated by the previous run are deleted
+            assertFalse(Files.exists(pointClass));
+            assertFalse(Files.exists(headerClass));
+
+            // a struct that is no longer there is deleted
+            Files.write(header, List.of(
+                    "int incremental_func(int);"));
+            run(output, "--incremental", "-t", "incr", header.toString()).checkSuccess();
+            assertFalse(Files.exists(output.resolve("incr").resolve("Point.java")));
+            assertTrue(Files.exists(output.resolve("incr").resolve("incremental_h.java")));
+            // staged files have all been moved in place
+            assertNoTmpFiles(output);
+        } finally {
+            TestUtils.deleteDir(output);
+            TestUtils.deleteDir(input);
+        }
+    }
+
+    private static void assertNoTmpFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            assertTrue(files.noneMatch(file -> file.getFileName().toString().endsWith(".tmp")));
+        }
+    }
+
+    private static void touchAll(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                Files.setLastModifiedTime(file, OLD_TIME);
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.openjdk.jextract.test.toolprovider;
+
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+import testlib.TestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+
+public class TestParallelCodegen extends JextractToolRunner {
+
+    private static final int DECLS = 300;
+    // read by jextract when the options of each run are created
+    private static final String PARALLEL_PROPERTY = "jextract.codegen.parallel";
+
+    @Test
+    public void testDeterministicOutput() throws IOException {
+        Path input = getOutputFilePath("TestParallelCodegen_input");
+        Path output1 = getOutputFilePath("TestParallelCodegen1");
+        Path output2 = getOutputFilePath("TestParallelCodegen2");
+        try {
+            Path header = writeSyntheticHeader(input);
+            run(output1, "-t", "parallel", header.toString()).checkSuccess();
+            run(output2, "-t", "parallel", header.toString()).checkSuccess();
+            assertSameOutput(output1, output2);
+        } finally {
+            TestUtils.deleteDir(output1);
+            TestUtils.deleteDir(output2);
+            TestUtils.deleteDir(input);
+        }
+    }
+
+    @Test
+    public void testSameAsSerialOutput() throws IOException {
+        Path input = getOutputFilePath("TestParallelCodegen_serial_input");
+        Path serialOutput = getOutputFilePath("TestParallelCodegen_serial");
+        Path parallelOutput = getOutputFilePath("TestParallelCodegen_parallel");
+        String previous = System.getProperty(PARALLEL_PROPERTY);
+        try {
+            Path header = writeSyntheticHeader(input);
+            System.setProperty(PARALLEL_PROPERTY, "false");
+            run(serialOutput, "-t", "parallel", header.toString()).checkSuccess();
+            System.setProperty(PARALLEL_PROPERTY, "true");
+            run(parallelOutput, "-t", "parallel", header.toString()).checkSuccess();
+            assertSameOutput(serialOutput, parallelOutput);
+        } finally {
+            if (previous != null) {
+                System.setProperty(PARALLEL_PROPERTY, previous);
+            } else {
+                System.clearProperty(PARALLEL_PROPERTY);
+            }
+            TestUtils.deleteDir(serialOutput);
+            TestUtils.deleteDir(parallelOutput);
+            TestUtils.deleteDir(input);
+        }
+    }
+
+    private static Path writeSyntheticHeader(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Path header = dir.resolve("parallel.h");
+        Files.write(header, syntheticHeader());
+        return header;
+    }
+
+    private static void assertSameOutput(Path expected, Path actual) throws IOException {
+        List<Path> expectedFiles = listFiles(expected);
+        assertEquals(listFiles(actual), expectedFiles);
+        for (Path file : expectedFiles) {
+            assertEquals(Files.readString(actual.resolve(file)), Files.readString(expected.resolve(file)),
+                    "Different contents: " + file);
+        }
+    }
+
+    private static List<String> syntheticHeader() {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < DECLS; i++) {
+            lines.add("typedef void (*callback" + i + "_t)(int);");
+            lines.add("struct S" + i + " {");
+            lines.add("    int x;");
+            lines.add("    struct { int a; int b; } anon;");
+            lines.add("    enum { S" + i + "_A, S" + i + "_B } e;");
+            lines.add("    callback" + i + "_t cb;");
+            lines.add("    void (*fp)(struct S" + i + "*);");
+            lines.add("};");
+            lines.add("typedef struct S" + i + " S" + i + "_t;");
+            lines.add("int func" + i + "(struct S" + i + " s, callback" + i + "_t cb);");
+        }
+        return lines;
+    }
+
+    private static List<Path> listFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile)
+                    .map(dir::relativize)
+                    .sorted()
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package org.openjdk.jextract.test.toolprovider;
+
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+import testlib.TestUtils;
+
+import java.nio.file.Path;
+
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+public class TestSharedDowncallHandles extends JextractToolRunner {
+
+    @Test
+    public void testSharedDowncallHandles() {
+        Path output = getOutputFilePath("TestSharedDowncallHandles");
+        Path header = getInputFilePath("shared_handles.h");
+        run(output, "--shared-downcall-handles", header.toString()).checkSuccess();
+        try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+            Class<?> headerClass = loader.loadClass("shared_handles_h");
+            assertNotNull(headerClass);
+            // same descriptor, same shared downcall handle
+            assertSame(findDescriptor(headerClass, "add"), findDescriptor(headerClass, "sub"));
+            assertNotNull(findMethod(headerClass, "add", int.class, int.class));
+            assertNotNull(findMethod(headerClass, "sub", int.class, int.class));
+            assertNotNull(findMethod(headerClass, "reset"));
+            // one holder class per distinct descriptor
+            assertNotNull(loader.loadClass("shared_handles_h$shared$downcall$0"));
+            assertNotNull(loader.loadClass("shared_handles_h$shared$downcall$1"));
+            assertNull(loader.loadClass("shared_handles_h$shared$downcall$2"));
+            // no holder class per function, the addresses are kept in the handle table
+            assertNull(loader.loadClass("shared_handles_h$add"));
+            assertNull(loader.loadClass("shared_handles_h$sub"));
+            assertNull(loader.loadClass("shared_handles_h$reset"));
+        } finally {
+            TestUtils.deleteDir(output);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.openjdk.jextract.test.toolprovider;
+
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+import testlib.TestUtils;
+
+import java.nio.file.Path;
+
+import static org.testng.Assert.assertNull;
+
+public class TestSkipMacros extends JextractToolRunner {
+
+    @Test
+    public void testSkipMacros() {
+        Path output = getOutputFilePath("TestSkipMacros-skip");
+        try {
+            runAndCompile(output, "--skip-macros", getInputFilePath("skip_macros.h").toString());
+            try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+                Class<?> headerCls = loader.loadClass("skip_macros_h");
+                assertNull(findMethod(headerCls, "MACRO_VALUE"));
+                checkIntGetter(headerCls, "ENUM_VALUE", 42);
+                checkMethod(headerCls, "skip_macros_func", int.class, int.class);
+            }
+        } finally {
+            TestUtils.deleteDir(output);
+        }
+    }
+
+    @Test
+    public void testIncludeFunctionOnly() {
+        Path output = getOutputFilePath("TestSkipMacros-function");
+        try {
+            runAndCompile(output, "--include-function", "skip_macros_func",
+                    getInputFilePath("skip_macros.h").toString());
+            try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+                Class<?> headerCls = loader.loadClass("skip_macros_h");
+                checkMethod(headerCls, "skip_macros_func", int.class, int.class);
+            }
+        } finally {
+            TestUtils.deleteDir(output);
+        }
+    }
+
+    @Test
+    public void testIncludeConstant() {
+        Path output = getOutputFilePath("TestSkipMacros-constant");
+        try {
+            runAndCompile(output, "--include-function", "skip_macros_func",
+                    "--include-constant", "MACRO_VALUE",
+                    getInputFilePath("skip_macros.h").toString());
+            try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+                Class<?> headerCls = loader.loadClass("skip_macros_h");
+                checkIntGetter(headerCls, "MACRO_VALUE", 42);
+                checkMethod(headerCls, "skip_macros_func", int.class, int.class);
+            }
+        } finally {
+            TestUtils.deleteDir(output);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.openjdk.jextract.test.toolprovider;
+
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+import testlib.TestUtils;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SegmentAllocator;
+import java.nio.file.Path;
+
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+public class TestStringOverloads extends JextractToolRunner {
+
+    @Test
+    public void testStringOverloads() {
+        Path output = getOutputFilePath("TestStringOverloads");
+        Path header = getInputFilePath("string_overloads.h");
+        run(output, header.toString()).checkSuccess();
+        try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+            Class<?> headerClass = loader.loadClass("string_overloads_h");
+            assertNotNull(headerClass);
+            assertNotNull(findMethod(headerClass, "count_chars", MemorySegment.class, byte.class));
+            assertNotNull(findMethod(headerClass, "count_chars", String.class, byte.class));
+            // only const char pointer parameters are replaced, using typedefs too
+            assertNotNull(findMethod(headerClass, "copy", MemorySegment.class, String.class, int.class));
+            assertNull(findMethod(headerClass, "copy", String.class, String.class, int.class));
+            // no overloads for functions returning pointers
+            assertNotNull(findMethod(headerClass, "find_char", MemorySegment.class, byte.class));
+            assertNull(findMethod(headerClass, "find_char", String.class, byte.class));
+            assertNotNull(findMethod(headerClass, "make_name", SegmentAllocator.class, String.class));
+            // no overloads for other pointers
+            assertNotNull(findMethod(headerClass, "sum", MemorySegment.class, int.class));
+            assertNull(findMethod(headerClass, "sum", String.class, int.class));
+
+            Class<?> callback = loader.loadClass("str_callback");
+            assertNotNull(callback);
+            assertNotNull(findMethod(callback, "invoke", MemorySegment.class, MemorySegment.class));
+            assertNotNull(findMethod(callback, "invoke", MemorySegment.class, String.class));
+
+            Class<?> fillCallback = loader.loadClass("fill_callback");
+            assertNotNull(fillCallback);
+            assertNotNull(findMethod(fillCallback, "invoke", MemorySegment.class, MemorySegment.class, int.class));
+            assertNull(findMethod(fillCallback, "invoke", MemorySegment.class, String.class, int.class));
+        } finally {
+            TestUtils.deleteDir(output);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.openjdk.jextract.test.toolprovider;
+
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+import testlib.TestUtils;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SegmentAllocator;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+public class TestStructArrayAccessors extends JextractToolRunner {
+
+    @Test
+    public void testStructArrayAccessors() throws Throwable {
+        Path output = getOutputFilePath("TestStructArrayAccessors");
+        Path header = getInputFilePath("struct_array.h");
+        run(output, header.toString()).checkSuccess();
+        try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+            Class<?> pointClass = loader.loadClass("Point");
+            assertNotNull(pointClass);
+            Method xGetter = findMethod(pointClass, "x$at", MemorySegment.class, long.class);
+            Method xSetter = findMethod(pointClass, "x$at", MemorySegment.class, long.class, int.class);
+            Method idGetter = findMethod(pointClass, "id$at", MemorySegment.class, long.class);
+            Method idSetter = findMethod(pointClass, "id$at", MemorySegment.class, long.class, long.class);
+            Method xSliceGetter = findMethod(pointClass, "x", MemorySegment.class);
+            Method idSliceGetter = findMethod(pointClass, "id", MemorySegment.class);
+            Method asSlice = findMethod(pointClass, "asSlice", MemorySegment.class, long.class);
+            Method allocateArray = findMethod(pointClass, "allocateArray", long.class, SegmentAllocator.class);
+            assertNotNull(xGetter);
+            assertNotNull(xSetter);
+            assertNotNull(idGetter);
+            assertNotNull(idSetter);
+            assertNotNull(xSliceGetter);
+            assertNotNull(idSliceGetter);
+            assertNotNull(asSlice);
+            assertNotNull(allocateArray);
+            // array fields do not have element accessors
+            assertNull(findMethod(pointClass, "tags$at", MemorySegment.class, long.class));
+
+            try (Arena arena = Arena.ofConfined()) {
+                MemorySegment points = (MemorySegment) allocateArray.invoke(null, 10L, arena);
+                for (long i = 0; i < 10; i++) {
+                    xSetter.invoke(null, points, i, (int) i * 2);
+                    idSetter.invoke(null, points, i, i + 100);
+                }
+                for (long i = 0; i < 10; i++) {
+                    MemorySegment element = (MemorySegment) asSlice.invoke(null, points, i);
+                    assertEquals(xSliceGetter.invoke(null, element), (int) i * 2);
+                    assertEquals(idSliceGetter.invoke(null, element), i + 100);
+                    assertEquals(xGetter.invoke(null, points, i), (int) i * 2);
+                    assertEquals(idGetter.invoke(null, points, i), i + 100);
+                }
+            }
+        } finally {
+            TestUtils.deleteDir(output);
+        }
+    }
+
+    @Test
+    public void testGatherScatter() throws Throwable {
+        Path output = getOutputFilePath("TestStructArrayAccessors-gather");
+        Path header = getInputFilePath("struct_array.h");
+        run(output, header.toString()).checkSuccess();
+        try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+            Class<?> pointClass = loader.loadClass("Point");
+            Method allocateArray = findMethod(pointClass, "allocateArray", long.class, SegmentAllocator.class);
+            Method idScatter = findMethod(pointClass, "id$scatter", MemorySegment.class, long.class, long[].class, int.class, int.class);
+            Method idGather = findMethod(pointClass, "id$gather", MemorySegment.class, long.class, long[].class, int.class, int.class);
+            Method idGetter = findMethod(pointClass, "id$at", MemorySegment.class, long.class);
+            Method yScatter = findMethod(pointClass, "y$scatter", MemorySegment.class, long.class, MemorySegment.class, long.class, long.class);
+            Method yGather = findMethod(pointClass, "y$gather", MemorySegment.class, long.class, MemorySegment.class, long.class, long.class);
+            Method yGetter = findMethod(pointClass, "y$at", MemorySegment.class, long.class);
+            assertNotNull(allocateArray);
+            assertNotNull(idScatter);
+            assertNotNull(idGather);
+            assertNotNull(idGetter);
+            assertNotNull(yScatter);
+            assertNotNull(yGather);
+            assertNotNull(yGetter);
+            // pointer fields do not have bulk accessors
+            assertNotNull(findMethod(pointClass, "name$at", MemorySegment.class, long.class));
+            assertNull(findMethod(pointClass, "name$gather", MemorySegment.class, long.class, MemorySegment.class, long.class, long.class));
+
+            try (Arena arena = Arena.ofConfined()) {
+                MemorySegment points = (MemorySegment) allocateArray.invoke(null, 10L, arena);
+
+                // Java arrays
+                long[] ids = new long[] { -1, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, -1 };
+                idScatter.invoke(null, points, 0L, ids, 1, 10);
+                for (long i = 0; i < 10; i++) {
+                    assertEquals(idGetter.invoke(null, points, i), 10 + i);
+                }
+                long[] gathered = new long[5];
+                idGather.invoke(null, points, 3L, gathered, 1, 4);
+                assertEquals(gathered, new long[] { 0, 13, 14, 15, 16 });
+
+                // contiguous segments
+                MemorySegment ys = arena.allocate(JAVA_INT, 10);
+                for (int i = 0; i < 10; i++) {
+                    ys.setAtIndex(JAVA_INT, i, i * 3);
+                }
+                yScatter.invoke(null, points, 5L, ys, 2L, 5L);
+                for (long i = 0; i < 10; i++) {
+                    assertEquals(yGetter.invoke(null, points, i), i < 5 ? 0 : (int) (i - 3) * 3);
+                }
+                MemorySegment gatheredYs = arena.allocate(JAVA_INT, 5);
+                yGather.invoke(null, points, 5L, gatheredYs, 0L, 5L);
+                assertEquals(gatheredYs.toArray(JAVA_INT), new int[] { 6, 9, 12, 15, 18 });
+            }
+        } finally {
+            TestUtils.deleteDir(output);
+        }
+    }
+}
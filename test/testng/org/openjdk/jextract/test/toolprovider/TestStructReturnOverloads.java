@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.openjdk.jextract.test.toolprovider;
+
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+import testlib.TestUtils;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SegmentAllocator;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+
+public class TestStructReturnOverloads extends JextractToolRunner {
+
+    @Test
+    public void testStructReturnOverloads() throws Throwable {
+        Path output = getOutputFilePath("TestStructReturnOverloads");
+        Path header = getInputFilePath("struct_return.h");
+        run(output, header.toString()).checkSuccess();
+        try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+            Class<?> headerClass = loader.loadClass("struct_return_h");
+            assertNotNull(headerClass);
+            assertNotNull(findMethod(headerClass, "divide", SegmentAllocator.class, int.class, int.class));
+            assertNotNull(findMethod(headerClass, "divide", MemorySegment.class, int.class, int.class));
+            assertNotNull(findMethod(headerClass, "divide", int.class, int.class));
+
+            Class<?> fnClass = loader.loadClass("div_fn");
+            Class<?> fiClass = loader.loadClass("div_fn$Function");
+            assertNotNull(fnClass);
+            assertNotNull(fiClass);
+            Method allocate = findMethod(fnClass, "allocate", fiClass, Arena.class);
+            Method invokeDest = findMethod(fnClass, "invoke", MemorySegment.class, MemorySegment.class, int.class, int.class);
+            Method invokeBuffer = findMethod(fnClass, "invoke", MemorySegment.class, int.class, int.class);
+            assertNotNull(allocate);
+            assertNotNull(invokeDest);
+            assertNotNull(invokeBuffer);
+
+            try (Arena arena = Arena.ofConfined()) {
+                Object fi = Proxy.newProxyInstance(fiClass.getClassLoader(), new Class<?>[] { fiClass },
+                        (proxy, method, args) -> {
+                            if (!method.getName().equals("apply")) {
+                                throw new UnsupportedOperationException(method.getName());
+                            }
+                            MemorySegment result = Arena.ofAuto().allocate(8);
+                            result.set(JAVA_INT, 0, (int)args[0] / (int)args[1]);
+                            result.set(JAVA_INT, 4, (int)args[0] % (int)args[1]);
+                            return result;
+                        });
+                MemorySegment stub = (MemorySegment) allocate.invoke(null, fi, arena);
+
+                // the returned struct is written to the given segment, a slice of which is returned
+                MemorySegment dest = arena.allocate(16);
+                MemorySegment result = (MemorySegment) invokeDest.invoke(null, stub, dest, 17, 5);
+                assertEquals(result.address(), dest.address());
+                assertEquals(result.byteSize(), 8);
+                assertEquals(dest.get(JAVA_INT, 0), 3);
+                assertEquals(dest.get(JAVA_INT, 4), 2);
+
+                // the returned struct is written to the same per-thread buffer
+                MemorySegment result1 = (MemorySegment) invokeBuffer.invoke(null, stub, 7, 2);
+                assertEquals(result1.get(JAVA_INT, 0), 3);
+                MemorySegment result2 = (MemorySegment) invokeBuffer.invoke(null, stub, 9, 4);
+                assertEquals(result2.address(), result1.address());
+                assertEquals(result2.get(JAVA_INT, 0), 2);
+                assertEquals(result2.get(JAVA_INT, 4), 1);
+            }
+        } finally {
+            TestUtils.deleteDir(output);
+        }
+    }
+}
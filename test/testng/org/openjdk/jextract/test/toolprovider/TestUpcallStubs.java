@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.openjdk.jextract.test.toolprovider;
+
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+import testlib.TestUtils;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.MemorySegment;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+public class TestUpcallStubs extends JextractToolRunner {
+
+    static int add(int x, int y) {
+        return x + y;
+    }
+
+    @Test
+    public void testUpcallStubs() throws Throwable {
+        Path output = getOutputFilePath("TestUpcallStubs");
+        Path header = getInputFilePath("upcall_stubs.h");
+        run(output, header.toString()).checkSuccess();
+        try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+            Class<?> callbackClass = loader.loadClass("callback_t");
+            Class<?> fiClass = loader.loadClass("callback_t$Function");
+            assertNotNull(callbackClass);
+            assertNotNull(fiClass);
+            Method allocateCached = findMethod(callbackClass, "allocateCached", fiClass, Arena.class);
+            Method upcallStub = findMethod(callbackClass, "upcallStub", MethodHandle.class, Arena.class);
+            Method invoke = findMethod(callbackClass, "invoke", MemorySegment.class, int.class, int.class);
+            Method descriptor = findMethod(callbackClass, "descriptor");
+            assertNotNull(allocateCached);
+            assertNotNull(upcallStub);
+            assertNotNull(invoke);
+            assertNotNull(descriptor);
+
+            Object fi = Proxy.newProxyInstance(fiClass.getClassLoader(), new Class<?>[] { fiClass },
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "apply" -> (int)args[0] * (int)args[1];
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+            try (Arena arena = Arena.ofConfined(); Arena otherArena = Arena.ofConfined()) {
+                // the same stub is returned for the same instance and arena
+                MemorySegment stub = (MemorySegment) allocateCached.invoke(null, fi, arena);
+                assertEquals(allocateCached.invoke(null, fi, arena), stub);
+                assertNotEquals(allocateCached.invoke(null, fi, otherArena), stub);
+                assertEquals(invoke.invoke(null, stub, 6, 7), 42);
+            }
+
+            // static method handles need no instance, and share the same stub for the same arena
+            FunctionDescriptor desc = (FunctionDescriptor) descriptor.invoke(null);
+            MethodHandle target = MethodHandles.lookup().findStatic(TestUpcallStubs.class, "add", desc.toMethodType());
+            MemorySegment stub;
+            try (Arena arena = Arena.ofConfined(); Arena otherArena = Arena.ofConfined()) {
+                stub = (MemorySegment) upcallStub.invoke(null, target, arena);
+                assertEquals(upcallStub.invoke(null, target, arena), stub);
+                assertNotEquals(upcallStub.invoke(null, target, otherArena), stub);
+                assertEquals(invoke.invoke(null, stub, 40, 2), 42);
+            }
+            // the stub is freed with its arena
+            assertFalse(stub.scope().isAlive());
+        } finally {
+            TestUtils.deleteDir(output);
+        }
+    }
+
+    @Test
+    public void testCachedStubsOfClosedArena() throws Throwable {
+        Path output = getOutputFilePath("TestUpcallStubsClosedArena");
+        Path header = getInputFilePath("upcall_stubs.h");
+        run(output, header.toString()).checkSuccess();
+        try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+            Class<?> callbackClass = loader.loadClass("callback_t");
+            Class<?> fiClass = loader.loadClass("callback_t$Function");
+            Method allocateCached = findMethod(callbackClass, "allocateCached", fiClass, Arena.class);
+            // the callback refers to its arena, which must not keep the cached stubs of the arena alive
+            // once the arena is closed
+            WeakReference<?>[] refs = allocateCachedAndClose(allocateCached, fiClass);
+            for (int i = 0; i < 100 && (refs[0].get() != null || refs[1].get() != null); i++) {
+                System.gc();
+                Thread.sleep(10);
+            }
+            assertNull(refs[0].get(), "arena not collected");
+            assertNull(refs[1].get(), "callback not collected");
+        } finally {
+            TestUtils.deleteDir(output);
+        }
+    }
+
+    // returns weak references to the (closed) arena and to the callback
+    private static WeakReference<?>[] allocateCachedAndClose(Method allocateCached, Class<?> fiClass) throws Throwable {
+        Arena arena = Arena.ofConfined();
+        Object fi = Proxy.newProxyInstance(fiClass.getClassLoader(), new Class<?>[] { fiClass },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "apply" -> arena.scope().isAlive() ? (int)args[0] + (int)args[1] : 0;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        MemorySegment stub = (MemorySegment) allocateCached.invoke(null, fi, arena);
+        assertEquals(allocateCached.invoke(null, fi, arena), stub);
+        arena.close();
+        return new WeakReference<?>[] { new WeakReference<>(arena), new WeakReference<>(fi) };
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.openjdk.jextract.test.toolprovider;
+
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+import testlib.TestUtils;
+
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Path;
+
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+public class TestVariadicCalls extends JextractToolRunner {
+
+    @Test
+    public void testVariadicCalls() {
+        Path output = getOutputFilePath("TestVariadicCalls");
+        Path header = getInputFilePath("variadic_calls.h");
+        run(output,
+                "--variadic-call", "log_values(int,double)",
+                "--variadic-call", "log_values( char * , void* )",
+                "--variadic-call", "log_values()",
+                // qualifiers are ignored
+                "--variadic-call", "log_values(const char *, volatile int)",
+                "--variadic-call", "log_values(char const * const, long)",
+                // not a variadic function, ignored
+                "--variadic-call", "log_value(int)",
+                header.toString()).checkSuccess();
+        try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+            Class<?> headerClass = loader.loadClass("variadic_calls_h");
+            assertNotNull(headerClass);
+            assertNotNull(findMethod(headerClass, "log_values", MemorySegment.class, int.class, double.class));
+            assertNotNull(findMethod(headerClass, "log_values", MemorySegment.class, MemorySegment.class, MemorySegment.class));
+            assertNotNull(findMethod(headerClass, "log_values", MemorySegment.class));
+            // strings can be passed for const char pointers, but not for variadic char pointers
+            assertNotNull(findMethod(headerClass, "log_values", String.class, int.class, double.class));
+            assertNotNull(findMethod(headerClass, "log_values", String.class, MemorySegment.class, MemorySegment.class));
+            assertNotNull(findMethod(headerClass, "log_values", String.class, MemorySegment.class, int.class));
+            assertNotNull(findMethod(headerClass, "log_values", String.class, MemorySegment.class, long.class));
+            assertNull(findMethod(headerClass, "log_values", String.class, String.class, int.class));
+            assertNull(findMethod(headerClass, "sum_values", int.class, int.class));
+
+            // invokers can still be used for the other call shapes
+            Class<?> invokerClass = loader.loadClass("variadic_calls_h$log_values");
+            assertNotNull(invokerClass);
+            assertNotNull(findMethod(invokerClass, "makeInvoker", MemoryLayout[].class));
+        } finally {
+            TestUtils.deleteDir(output);
+        }
+    }
+
+    @Test
+    public void testInvalidVariadicCall() {
+        Path header = getInputFilePath("variadic_calls.h");
+        for (String call : new String[] { "log_values", "log_values(float)", "(int)", "log_values(int,)",
+                "log_values(const)", "log_values(char * int)" }) {
+            runNoOuput("--variadic-call", call, header.toString())
+                    .checkFailure(OPTION_ERROR)
+                    .checkContainsOutput("invalid call shape for --variadic-call option: " + call);
+        }
+    }
+}
@@ -204,11 +204,33 @@ public class TestDocComments extends JextractToolRunner {
             "typedef struct Point { int x; int y; } Point_t"));
     }
 
-    private List<String> getDocComments(String header, String outputFile)
+    @Test
+    public void testFunctionsIncluded() throws IOException {
+        var comments = getDocComments("funcptrs.h", "funcptrs_h.java",
+            "--include-function", "signal");
+        assertContains(comments, List.of(
+            "void (*signal(int sig, void (*func)(int)))(int)"
+        ));
+        comments = getDocComments("funcptrs.h", "signal$func.java",
+            "--include-function", "signal");
+        assertContains(comments, List.of(
+            "void (*func)(int)"
+        ));
+    }
+
+    @Test
+    public void testOmitDocComments() throws IOException {
+        assertEquals(getDocComments("functions.h", "functions_h.java", "--omit-doc-comments"), List.of());
+        assertEquals(getDocComments("structs.h", "Point.java", "--omit-doc-comments"), List.of());
+    }
+
+    private List<String> getDocComments(String header, String outputFile, String... options)
             throws IOException {
         var output = getOutputFilePath("TestDocComments-parse-" + header);
         var outputH = getInputFilePath(header);
-        run(output, outputH.toString());
+        var args = new ArrayList<>(List.of(options));
+        args.add(outputH.toString());
+        run(output, args.toArray(new String[0]));
         try {
             return findDocComments(Files.readString(output.resolve(outputFile)));
         } finally {
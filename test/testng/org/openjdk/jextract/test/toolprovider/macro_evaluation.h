@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+#define SHIFTED (1 << 4)
+#define SIGN_BIT (1 << 31)
+#define HEX_UNSIGNED 0xFFFFFFFF // unsigned int
+#define DEC_LONG 4294967296 // long (or long long)
+#define ULL_MAX 0xFFFFFFFFFFFFFFFFULL
+#define FLAG_A 0x1
+#define FLAG_B 0x2
+#define FLAG_C (1 << 2)
+#define FLAGS (FLAG_A | FLAG_B | FLAG_C)
+#define MASK ~0u
+#define UNSIGNED_DIV ((2u - 3) / 2) // unsigned wrap-around
+#define MIXED_SIGN (-1 < 1u) // -1 is converted to unsigned
+#define CHAR_ESCAPE '\n'
+#define CHAR_OCTAL '\101'
+#define FLOAT_SUM (1.5f + 2.25f)
+#define DOUBLE_MIX (1 + 0.5)
+#define HEX_FLOAT 0x1p-2
+#define TERNARY (FLAGS > 4 ? 10L : 20)
+#define NOT_FLAGS !FLAGS
+#define CAST_SHORT ((short)65537)
+#define CAST_INT ((int)2.75)
+#define CONCAT "Hello" " " "World"
+
+enum { E_ONE = 1 };
+
+#define FWD_SUM (FWD_A + FWD_B) // forward references
+#define FWD_A 40
+#define FWD_B (FWD_A + 2)
+#define ENUM_BASED (E_ONE + 1) // evaluated by clang
+#define ENUM_CHAIN (ENUM_BASED * 2)
+#define OPEN_BRACE { // not a constant
+#define AFTER_BRACE (ENUM_CHAIN + 1)
+
+#define REDEF_A 1
+#define REDEF_B REDEF_A // expanded where it is used, so it sees the redefinition below
+#undef REDEF_A
+#define REDEF_A 2
+#define REDEF_C (REDEF_B + 1)
+#define UNDEF_A 1
+#define UNDEF_B (UNDEF_A + 1) // refers to a macro which is undefined below
+#undef UNDEF_A
+#define UNDEF_C (UNDEF_B * 2)
+#define UNDEF_SELF (3 + REDEF_A)
+#undef UNDEF_SELF
+#define FUNC_A 1
+#define FUNC_B (FUNC_A + 1) // refers to a macro which is redefined as a function-like macro below
+#undef FUNC_A
+#define FUNC_A(x) x
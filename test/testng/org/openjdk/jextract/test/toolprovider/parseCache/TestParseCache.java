@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.openjdk.jextract.test.toolprovider.parseCache;
+
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+import testlib.TestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+
+public class TestParseCache extends JextractToolRunner {
+
+    @Test
+    public void testParseCache() throws IOException {
+        Path headerDir = getOutputFilePath("TestParseCache-headers");
+        Path cacheDir = getOutputFilePath("TestParseCache-cache");
+        Path output = getOutputFilePath("TestParseCache-output");
+        try {
+            Files.createDirectories(headerDir);
+            Path header = headerDir.resolve("cached.h");
+            Path included = headerDir.resolve("cached_included.h");
+            Files.writeString(header, """
+                    #include "cached_included.h"
+                    int cached_func(int x);
+                    """);
+            Files.writeString(included, """
+                    #define CACHED_VALUE 1
+                    """);
+
+            // first run, populates the cache
+            run(output, "--parse-cache", cacheDir.toString(), header.toString()).checkSuccess();
+            assertEquals(countEntries(cacheDir), 1);
+
+            // second run, uses the cache
+            TestUtils.deleteDir(output);
+            runAndCompile(output, "--parse-cache", cacheDir.toString(), header.toString());
+            assertEquals(countEntries(cacheDir), 1);
+            try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+                Class<?> headerCls = loader.loadClass("cached_h");
+                checkMethod(headerCls, "cached_func", int.class, int.class);
+                checkIntGetter(headerCls, "CACHED_VALUE", 1);
+            }
+
+            // change an included header, the cached entry should not be used
+            Files.writeString(included, """
+                    #define CACHED_VALUE 2
+                    int other_func(void);
+                    """);
+            TestUtils.deleteDir(output);
+            runAndCompile(output, "--parse-cache", cacheDir.toString(), header.toString());
+            try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+                Class<?> headerCls = loader.loadClass("cached_h");
+                checkIntGetter(headerCls, "CACHED_VALUE", 2);
+                assertNotNull(findMethod(headerCls, "other_func"));
+            }
+
+            // different clang options use a different entry
+            TestUtils.deleteDir(output);
+            runAndCompile(output, "--parse-cache", cacheDir.toString(), "-D", "FOO=1", header.toString());
+            assertEquals(countEntries(cacheDir), 2);
+        } finally {
+            TestUtils.deleteDirIfExists(output);
+            TestUtils.deleteDirIfExists(cacheDir);
+            TestUtils.deleteDirIfExists(headerDir);
+        }
+    }
+
+    @Test
+    public void testErrorsNotCached() throws IOException {
+        Path headerDir = getOutputFilePath("TestParseCache-bad-headers");
+        Path cacheDir = getOutputFilePath("TestParseCache-bad-cache");
+        Path output = getOutputFilePath("TestParseCache-bad-output");
+        try {
+            Files.createDirectories(headerDir);
+            Path header = headerDir.resolve("bad.h");
+            Files.writeString(header, """
+                    int bad_func(undefined_t x);
+                    """);
+            run(output, "--parse-cache", cacheDir.toString(), header.toString()).checkFailure(CLANG_ERROR);
+            assertEquals(countEntries(cacheDir), 0);
+        } finally {
+            TestUtils.deleteDirIfExists(output);
+            TestUtils.deleteDirIfExists(cacheDir);
+            TestUtils.deleteDirIfExists(headerDir);
+        }
+    }
+
+    @Test
+    public void testWarningsReplayed() throws IOException {
+        Path headerDir = getOutputFilePath("TestParseCache-warn-headers");
+        Path cacheDir = getOutputFilePath("TestParseCache-warn-cache");
+        Path output = getOutputFilePath("TestParseCache-warn-output");
+        try {
+            Files.createDirectories(headerDir);
+            Path header = headerDir.resolve("warn.h");
+            Files.writeString(header, """
+                    #warning "cached warning"
+                    int warn_func(int x);
+                    """);
+            run(output, "--parse-cache", cacheDir.toString(), header.toString())
+                    .checkSuccess()
+                    .checkContainsOutput("cached warning");
+            assertEquals(countEntries(cacheDir), 1);
+
+            // the warning is reported again when the cached entry is used
+            TestUtils.deleteDir(output);
+            run(output, "--parse-cache", cacheDir.toString(), header.toString())
+                    .checkSuccess()
+                    .checkContainsOutput("cached warning");
+            assertEquals(countEntries(cacheDir), 1);
+        } finally {
+            TestUtils.deleteDirIfExists(output);
+            TestUtils.deleteDirIfExists(cacheDir);
+            TestUtils.deleteDirIfExists(headerDir);
+        }
+    }
+
+    @Test
+    public void testMismatchedEntry() throws IOException {
+        Path headerDir = getOutputFilePath("TestParseCache-mismatch-headers");
+        Path cacheDir = getOutputFilePath("TestParseCache-mismatch-cache");
+        Path output = getOutputFilePath("TestParseCache-mismatch-output");
+        try {
+            Files.createDirectories(headerDir);
+            Path header = headerDir.resolve("mismatch.h");
+            Files.writeString(header, """
+                    int mismatch_func(int x);
+                    """);
+            run(output, "--parse-cache", cacheDir.toString(), header.toString()).checkSuccess();
+            assertEquals(countEntries(cacheDir), 1);
+
+            // an AST file which does not match its dependency file is not used
+            Path astFile;
+            try (Stream<Path> files = Files.list(cacheDir)) {
+                astFile = files.filter(f -> f.getFileName().toString().endsWith(".ast")).findFirst().orElseThrow();
+            }
+            Files.write(astFile, new byte[] { 1, 2, 3 });
+            TestUtils.deleteDir(output);
+            runAndCompile(output, "--parse-cache", cacheDir.toString(), header.toString());
+            try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+                Class<?> headerCls = loader.loadClass("mismatch_h");
+                checkMethod(headerCls, "mismatch_func", int.class, int.class);
+            }
+            // the entry has been stored again
+            assertNotEquals(Files.size(astFile), 3L);
+        } finally {
+            TestUtils.deleteDirIfExists(output);
+            TestUtils.deleteDirIfExists(cacheDir);
+            TestUtils.deleteDirIfExists(headerDir);
+        }
+    }
+
+    private static long countEntries(Path cacheDir) throws IOException {
+        if (!Files.isDirectory(cacheDir)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".ast")).count();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2024, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.openjdk.jextract.test.toolprovider.parseThreads;
+
+import org.testng.annotations.Test;
+import testlib.JextractToolRunner;
+import testlib.TestUtils;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SegmentAllocator;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+
+public class TestParseThreads extends JextractToolRunner {
+
+    @Test
+    public void testParseThreads() {
+        Path output = getOutputFilePath("TestParseThreads-groups");
+        try {
+            runAndCompile(output,
+                    "--parse-threads", "2",
+                    "--header-class-name", "groups_h",
+                    getInputFilePath("group_a.h").toString(),
+                    getInputFilePath("group_b.h").toString());
+            try (TestUtils.Loader loader = TestUtils.classLoader(output)) {
+                Class<?> headerCls = loader.loadClass("groups_h");
+                checkMethod(headerCls, "a_func", int.class, MemorySegment.class);
+                checkMethod(headerCls, "b_func", MemorySegment.class, SegmentAllocator.class, int.class);
+                checkIntGetter(headerCls, "COMMON_VALUE", 42);
+                assertNotNull(loader.loadClass("Point"));
+                assertNotNull(loader.loadClass("common_t"));
+            }
+        } finally {
+            TestUtils.deleteDir(output);
+        }
+    }
+
+    @Test
+    public void testSameOutput() throws IOException {
+        Path serialOutput = getOutputFilePath("TestParseThreads-serial");
+        Path parallelOutput = getOutputFilePath("TestParseThreads-parallel");
+        try {
+            String a = getInputFilePath("group_a.h").toString();
+            String b = getInputFilePath("group_b.h").toString();
+            run(serialOutput, "--header-class-name", "groups_h", a, b).checkSuccess();
+            run(parallelOutput, "--parse-threads", "2", "--header-class-name", "groups_h", a, b).checkSuccess();
+            List<Path> serialFiles = listFiles(serialOutput);
+            assertEquals(listFiles(parallelOutput), serialFiles);
+            for (Path file : serialFiles) {
+                assertEquals(Files.readString(parallelOutput.resolve(file)),
+                        Files.readString(serialOutput.resolve(file)));
+            }
+        } finally {
+            TestUtils.deleteDir(serialOutput);
+            TestUtils.deleteDir(parallelOutput);
+        }
+    }
+
+    @Test
+    public void testBadThreadCount() {
+        Path output = getOutputFilePath("TestParseThreads-bad");
+        run(output, "--parse-threads", "0", getInputFilePath("group_a.h").toString())
+                .checkFailure(OPTION_ERROR)
+                .checkContainsOutput("invalid number of threads for --parse-threads option: 0");
+    }
+
+    private static List<Path> listFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile)
+                    .map(dir::relativize)
+                    .sorted()
+                    .toList();
+        }
+    }
+}